@@ -0,0 +1,53 @@
+// Writes .gz and .br copies of the text assets in build/ so that the backend
+// can serve them as-is (spring.web.resources.chain.compressed) instead of
+// compressing the bundle on every request. Runs after `npm run build`.
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const buildDir = path.join(__dirname, "..", "build");
+const extensions = new Set([".html", ".js", ".css", ".json", ".svg", ".txt", ".map"]);
+const minBytes = 1024;
+
+const encoders = {
+  ".gz": (data) => zlib.gzipSync(data, { level: zlib.constants.Z_BEST_COMPRESSION }),
+  ".br": (data) =>
+    zlib.brotliCompressSync(data, {
+      params: {
+        [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+        [zlib.constants.BROTLI_PARAM_SIZE_HINT]: data.length,
+      },
+    }),
+};
+
+function* files(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const file = path.join(dir, entry.name);
+    if (entry.isDirectory()) {
+      yield* files(file);
+    } else {
+      yield file;
+    }
+  }
+}
+
+let written = 0;
+for (const file of files(buildDir)) {
+  if (!extensions.has(path.extname(file))) {
+    continue;
+  }
+  const data = fs.readFileSync(file);
+  if (data.length < minBytes) {
+    continue;
+  }
+  for (const [suffix, encode] of Object.entries(encoders)) {
+    const encoded = encode(data);
+    // only keep a variant that is actually smaller
+    if (encoded.length < data.length) {
+      fs.writeFileSync(file + suffix, encoded);
+      written++;
+    }
+  }
+}
+console.log(`compress-build: wrote ${written} precompressed files`);
@@ -42,4 +42,9 @@ const usersFixtures = {
     ]
 }
 
+// keyset pages from /api/admin/users?limit=...
+usersFixtures.firstTwoUsersPage = { content: usersFixtures.threeUsers.slice(0, 2), nextCursor: "2" };
+usersFixtures.lastUserPage = { content: usersFixtures.threeUsers.slice(2), nextCursor: null };
+usersFixtures.threeUsersPage = { content: usersFixtures.threeUsers, nextCursor: null };
+
 export default usersFixtures;
\ No newline at end of file
@@ -1,4 +1,5 @@
 import React from "react";
+import { Button } from "react-bootstrap";
 import OurTable from "main/components/OurTable"
 
 const columns = [
@@ -25,9 +26,25 @@ const columns = [
     },
 ];
 
-export default function UsersTable({ users }) {
-    return <OurTable
-        data={users}
-        columns={columns}
-        testid={"UsersTable"} />;
-};
\ No newline at end of file
+// users may be only the pages loaded so far; if hasMore, a button
+// under the table calls loadMore to fetch the next page
+export default function UsersTable({ users, hasMore = false, loadMore, loading = false }) {
+    return (
+        <>
+            <OurTable
+                data={users}
+                columns={columns}
+                testid={"UsersTable"} />
+            {hasMore && (
+                <Button
+                    variant="secondary"
+                    onClick={() => loadMore()}
+                    disabled={loading}
+                    data-testid="UsersTable-load-more"
+                >
+                    {loading ? "Loading..." : "Load more"}
+                </Button>
+            )}
+        </>
+    );
+};
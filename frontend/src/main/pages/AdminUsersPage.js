@@ -1,22 +1,68 @@
-import React from "react";
+import React, { useState } from "react";
+import { Button, Form, Row, Col } from "react-bootstrap";
 import BasicLayout from "main/layouts/BasicLayout/BasicLayout";
 import UsersTable from "main/components/Users/UsersTable"
 
-import { useBackend } from "main/utils/useBackend";
+import { useBackendPages } from "main/utils/useBackend";
+
+export const PAGE_SIZE = 100;
+
 const AdminUsersPage = () => {
 
-    const { data: users, error: _error, status: _status } =
-        useBackend(
+    const [sort, setSort] = useState("id");
+    const [searchText, setSearchText] = useState("");
+    const [search, setSearch] = useState("");
+
+    const { data, fetchNextPage, hasNextPage, isFetchingNextPage } =
+        useBackendPages(
             // Stryker disable next-line all : don't test internal caching of React Query
-            ["/api/admin/users"],
-            { method: "GET", url: "/api/admin/users" },
-            []
+            ["/api/admin/users", sort, search],
+            { method: "GET", url: "/api/admin/users", params: { limit: PAGE_SIZE, sort, search } }
         );
 
+    const users = data ? data.pages.flatMap((page) => page.content) : [];
+
+    const onSearch = (event) => {
+        event.preventDefault();
+        setSearch(searchText.trim());
+    };
+
     return (
         <BasicLayout>
             <h2>Users</h2>
-            <UsersTable users={users} />
+            <Form onSubmit={onSearch} className="mb-3">
+                <Row>
+                    <Col>
+                        <Form.Control
+                            data-testid="AdminUsersPage-search"
+                            type="text"
+                            placeholder="Email or name starts with..."
+                            value={searchText}
+                            onChange={(e) => setSearchText(e.target.value)}
+                        />
+                    </Col>
+                    <Col xs="auto">
+                        <Form.Select
+                            data-testid="AdminUsersPage-sort"
+                            value={sort}
+                            onChange={(e) => setSort(e.target.value)}
+                        >
+                            <option value="id">Sort by id</option>
+                            <option value="email">Sort by email</option>
+                            <option value="fullName">Sort by name</option>
+                        </Form.Select>
+                    </Col>
+                    <Col xs="auto">
+                        <Button type="submit" data-testid="AdminUsersPage-search-button">Search</Button>
+                    </Col>
+                </Row>
+            </Form>
+            <UsersTable
+                users={users}
+                hasMore={Boolean(hasNextPage)}
+                loadMore={fetchNextPage}
+                loading={isFetchingNextPage}
+            />
         </BasicLayout>
     );
 };
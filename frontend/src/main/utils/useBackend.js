@@ -1,4 +1,4 @@
-import { useQuery, useMutation, useQueryClient } from "react-query";
+import { useQuery, useInfiniteQuery, useMutation, useQueryClient } from "react-query";
 import axios from "axios";
 import { toast } from "react-toastify";
 
@@ -42,6 +42,36 @@ export function useBackend(queryKey, axiosParameters, initialData) {
     });
 }
 
+// For endpoints that return one keyset page at a time ({ content, nextCursor }).
+// Each page is fetched with after=<nextCursor of the previous page>;
+// fetchNextPage() loads the next one and hasNextPage is false after the last.
+//
+// GET Example:
+// useBackendPages(
+//     ["/api/admin/users", sort, search],
+//     { method: "GET", url: "/api/admin/users", params: { limit: 100, sort, search } }
+// );
+
+export function useBackendPages(queryKey, axiosParameters) {
+
+    return useInfiniteQuery(queryKey, async ({ pageParam }) => {
+        try {
+            const response = await axios({
+                ...axiosParameters,
+                params: { ...axiosParameters.params, after: pageParam }
+            });
+            return response.data;
+        } catch (e) {
+            const errorMessage = `Error communicating with backend via ${axiosParameters.method} on ${axiosParameters.url}`;
+            toast(errorMessage);
+            console.error(errorMessage, e);
+            throw e;
+        }
+    }, {
+        getNextPageParam: (lastPage) => lastPage.nextCursor ?? undefined
+    });
+}
+
 // const wrappedParams = async (params) =>
 //   await ( await axios(params)).data;
 
@@ -28,3 +28,11 @@ ThreeUsers.args = {
 };
 
 
+
+export const MorePages = Template.bind({});
+
+MorePages.args = {
+    users: usersFixtures.firstTwoUsersPage.content,
+    hasMore: true,
+    loadMore: () => window.alert("loadMore")
+};
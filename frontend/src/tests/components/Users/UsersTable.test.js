@@ -1,4 +1,4 @@
-import { render, screen } from "@testing-library/react";
+import { fireEvent, render, screen } from "@testing-library/react";
 import usersFixtures from "fixtures/usersFixtures";
 import UsersTable from "main/components/Users/UsersTable"
 
@@ -42,5 +42,34 @@ describe("UserTable tests", () => {
         expect(screen.getByTestId(`${testId}-cell-row-1-col-admin`)).toHaveTextContent("false");
 
       });
-});
 
+    test("has no load more button unless there are more users", () => {
+        render(
+            <UsersTable users={usersFixtures.threeUsers} />
+        );
+        expect(screen.queryByTestId("UsersTable-load-more")).not.toBeInTheDocument();
+    });
+
+    test("load more button fetches the next page", () => {
+        const loadMore = jest.fn();
+        render(
+            <UsersTable users={usersFixtures.threeUsers} hasMore={true} loadMore={loadMore} />
+        );
+        const button = screen.getByTestId("UsersTable-load-more");
+        expect(button).toHaveTextContent("Load more");
+        expect(button).toBeEnabled();
+
+        fireEvent.click(button);
+        expect(loadMore).toHaveBeenCalledTimes(1);
+    });
+
+    test("load more button is disabled while a page is loading", () => {
+        render(
+            <UsersTable users={usersFixtures.threeUsers} hasMore={true} loadMore={jest.fn()} loading={true} />
+        );
+        const button = screen.getByTestId("UsersTable-load-more");
+        expect(button).toHaveTextContent("Loading...");
+        expect(button).toBeDisabled();
+    });
+
+});
@@ -1,7 +1,7 @@
-import { render, waitFor, screen } from "@testing-library/react";
+import { fireEvent, render, waitFor, screen } from "@testing-library/react";
 import { QueryClient, QueryClientProvider } from "react-query";
 import { MemoryRouter } from "react-router-dom";
-import AdminUsersPage from "main/pages/AdminUsersPage";
+import AdminUsersPage, { PAGE_SIZE } from "main/pages/AdminUsersPage";
 import usersFixtures from "fixtures/usersFixtures";
 import { apiCurrentUserFixtures } from "fixtures/currentUserFixtures";
 import { systemInfoFixtures } from "fixtures/systemInfoFixtures";
@@ -23,33 +23,65 @@ describe("AdminUsersPage tests", () => {
         axiosMock.onGet("/api/systemInfo").reply(200, systemInfoFixtures.showingNeither);
     });
 
+    const renderPage = () => render(
+        <QueryClientProvider client={new QueryClient()}>
+            <MemoryRouter>
+                <AdminUsersPage />
+            </MemoryRouter>
+        </QueryClientProvider>
+    );
+
+    const userRequests = () => axiosMock.history.get.filter((request) => request.url === "/api/admin/users");
+
     test("renders without crashing on three users", async () => {
-        const queryClient = new QueryClient();
-        axiosMock.onGet("/api/admin/users").reply(200, usersFixtures.threeUsers);
-
-        render(
-            <QueryClientProvider client={queryClient}>
-                <MemoryRouter>
-                    <AdminUsersPage />
-                </MemoryRouter>
-            </QueryClientProvider>
-        );
+        axiosMock.onGet("/api/admin/users").reply(200, usersFixtures.threeUsersPage);
+
+        renderPage();
         await screen.findByText("Users");
+
+        expect(await screen.findByTestId(`${testId}-cell-row-2-col-id`)).toHaveTextContent("3");
+        expect(screen.queryByTestId(`${testId}-load-more`)).not.toBeInTheDocument();
+        expect(userRequests()[0].params).toEqual({ limit: PAGE_SIZE, sort: "id", search: "", after: undefined });
+    });
+
+    test("loads the next page when asked", async () => {
+        axiosMock.onGet("/api/admin/users", { params: { limit: PAGE_SIZE, sort: "id", search: "", after: undefined } })
+            .reply(200, usersFixtures.firstTwoUsersPage);
+        axiosMock.onGet("/api/admin/users", { params: { limit: PAGE_SIZE, sort: "id", search: "", after: "2" } })
+            .reply(200, usersFixtures.lastUserPage);
+
+        renderPage();
+
+        expect(await screen.findByTestId(`${testId}-cell-row-1-col-id`)).toHaveTextContent("2");
+        expect(screen.queryByTestId(`${testId}-cell-row-2-col-id`)).not.toBeInTheDocument();
+
+        fireEvent.click(screen.getByTestId(`${testId}-load-more`));
+
+        expect(await screen.findByTestId(`${testId}-cell-row-2-col-id`)).toHaveTextContent("3");
+        await waitFor(() => expect(screen.queryByTestId(`${testId}-load-more`)).not.toBeInTheDocument());
+    });
+
+    test("search and sort are sent to the backend", async () => {
+        axiosMock.onGet("/api/admin/users").reply(200, usersFixtures.threeUsersPage);
+
+        renderPage();
+        await screen.findByTestId(`${testId}-cell-row-0-col-id`);
+
+        fireEvent.change(screen.getByTestId("AdminUsersPage-sort"), { target: { value: "email" } });
+        fireEvent.change(screen.getByTestId("AdminUsersPage-search"), { target: { value: " phtcon " } });
+        fireEvent.click(screen.getByTestId("AdminUsersPage-search-button"));
+
+        await waitFor(() => expect(userRequests().length).toBe(3));
+        expect(userRequests()[1].params).toEqual({ limit: PAGE_SIZE, sort: "email", search: "", after: undefined });
+        expect(userRequests()[2].params).toEqual({ limit: PAGE_SIZE, sort: "email", search: "phtcon", after: undefined });
     });
 
     test("renders empty table when backend unavailable", async () => {
-        const queryClient = new QueryClient();
         axiosMock.onGet("/api/admin/users").timeout();
 
         const restoreConsole = mockConsole();
 
-        render(
-            <QueryClientProvider client={queryClient}>
-                <MemoryRouter>
-                    <AdminUsersPage />
-                </MemoryRouter>
-            </QueryClientProvider>
-        );
+        renderPage();
 
         await waitFor(() => { expect(axiosMock.history.get.length).toBeGreaterThanOrEqual(1); });
 
@@ -63,5 +95,3 @@ describe("AdminUsersPage tests", () => {
 
 
 });
-
-
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminStatusService;
+import edu.ucsb.cs156.example.services.CurrentUserServiceImpl;
+import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+
+/**
+ * The application's persistence layer (entities, repositories, Flyway
+ * migrations, second-level cache) and user services, without the web layer,
+ * against an in-memory H2 database.
+ */
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+@Import({ CurrentUserServiceImpl.class, GrantedAuthoritiesService.class, AdminStatusService.class })
+class BenchmarkApplication {
+
+  static ConfigurableApplicationContext start(String database) {
+    return new SpringApplicationBuilder(BenchmarkApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(
+            "--spring.profiles.active=",
+            "--spring.datasource.url=jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1".formatted(database),
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--logging.level.root=WARN");
+  }
+}
@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+import edu.ucsb.cs156.example.entities.User;
+
+/**
+ * Realistic-looking rows of each entity for the benchmarks. Ids are left
+ * unset (0) when withIds is false, so the rows can be inserted.
+ */
+final class BenchmarkData {
+
+  static final List<String> ENTITIES = List.of(
+      "Restaurant", "UCSBDate", "UCSBDiningCommons", "UCSBDiningCommonsMenuItem", "UCSBOrganizations", "User");
+
+  private BenchmarkData() {
+  }
+
+  private static <T> List<T> rows(int count, IntFunction<T> row) {
+    List<T> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(row.apply(i));
+    }
+    return rows;
+  }
+
+  static Class<?> type(String entity) {
+    return switch (entity) {
+      case "Restaurant" -> Restaurant.class;
+      case "UCSBDate" -> UCSBDate.class;
+      case "UCSBDiningCommons" -> UCSBDiningCommons.class;
+      case "UCSBDiningCommonsMenuItem" -> UCSBDiningCommonsMenuItem.class;
+      case "UCSBOrganizations" -> UCSBOrganizations.class;
+      case "User" -> User.class;
+      default -> throw new IllegalArgumentException("Unknown entity " + entity);
+    };
+  }
+
+  static List<?> rows(String entity, int count, boolean withIds) {
+    return switch (entity) {
+      case "Restaurant" -> restaurants(count, withIds);
+      case "UCSBDate" -> dates(count, withIds);
+      case "UCSBDiningCommons" -> commons(count);
+      case "UCSBDiningCommonsMenuItem" -> menuItems(count, withIds);
+      case "UCSBOrganizations" -> organizations(count);
+      case "User" -> users(count, withIds);
+      default -> throw new IllegalArgumentException("Unknown entity " + entity);
+    };
+  }
+
+  static List<Restaurant> restaurants(int count, boolean withIds) {
+    return rows(count, i -> Restaurant.builder()
+        .id(withIds ? i + 1 : 0).name("Restaurant " + i).description("Tacos, burritos and bowls #" + i).build());
+  }
+
+  static List<UCSBDate> dates(int count, boolean withIds) {
+    return rows(count, i -> UCSBDate.builder()
+        .id(withIds ? i + 1 : 0).quarterYYYYQ("2022" + (i % 4 + 1)).name("Event " + i)
+        .localDateTime(LocalDateTime.of(2022, 1, 1, 0, 0).plusHours(i)).build());
+  }
+
+  static List<UCSBDiningCommons> commons(int count) {
+    return rows(count, i -> UCSBDiningCommons.builder()
+        .code("commons-" + i).name("Dining Commons " + i)
+        .hasSackMeal(i % 2 == 0).hasTakeOutMeal(i % 3 == 0).hasDiningCam(true)
+        .latitude(34.409953 + i / 1e6).longitude(-119.85277 - i / 1e6).build());
+  }
+
+  static List<UCSBDiningCommonsMenuItem> menuItems(int count, boolean withIds) {
+    return rows(count, i -> UCSBDiningCommonsMenuItem.builder()
+        .id(withIds ? i + 1 : 0).diningCommonsCode("ortega").name("Baked Pesto Pasta with Chicken " + i)
+        .station("Entree Specials").build());
+  }
+
+  static List<UCSBOrganizations> organizations(int count) {
+    return rows(count, i -> UCSBOrganizations.builder()
+        .orgCode("org" + i).orgTranslationShort("Org " + i)
+        .orgTranslation("Student Organization Number " + i).inactive(i % 5 == 0).build());
+  }
+
+  static List<User> users(int count, boolean withIds) {
+    return rows(count, i -> User.builder()
+        .id(withIds ? i + 1 : 0).email("user" + i + "@ucsb.edu").googleSub("1" + i)
+        .pictureUrl("https://example.org/u/" + i)
+        .fullName("User Number " + i).givenName("User").familyName("Number " + i)
+        .emailVerified(true).locale("en").hostedDomain("ucsb.edu").admin(i % 50 == 0).build());
+  }
+}
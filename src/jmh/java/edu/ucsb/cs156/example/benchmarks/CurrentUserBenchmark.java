@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.CurrentUserServiceImpl;
+
+/**
+ * CurrentUserServiceImpl.getCurrentUser, which /api/currentUser and every
+ * controller that checks the caller run, for a user already in the cache and
+ * for one that has to be loaded from the users table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CurrentUserBenchmark {
+
+  static final String EMAIL = "cgaucho@ucsb.edu";
+
+  ConfigurableApplicationContext context;
+  CurrentUserServiceImpl currentUserService;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("currentUser");
+    context.getBean(UserRepository.class).saveAll(BenchmarkData.users(1000, false));
+    context.getBean(UserRepository.class).save(User.builder()
+        .email(EMAIL).googleSub("115856948234298493496").fullName("Chris Gaucho")
+        .emailVerified(true).admin(false).build());
+    currentUserService = context.getBean(CurrentUserServiceImpl.class);
+
+    Map<String, Object> attributes = Map.of(
+        "email", EMAIL,
+        "sub", "115856948234298493496",
+        "name", "Chris Gaucho",
+        "email_verified", true);
+    OAuth2UserAuthority authority = new OAuth2UserAuthority(attributes);
+    DefaultOAuth2User principal = new DefaultOAuth2User(List.of(authority), attributes, "email");
+    // JMH calls the benchmark methods from its own worker threads
+    SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+    SecurityContextHolder.getContext().setAuthentication(
+        new OAuth2AuthenticationToken(principal, List.of(authority), "google"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    SecurityContextHolder.clearContext();
+    context.close();
+  }
+
+  @Benchmark
+  public CurrentUser cached() {
+    return currentUserService.getCurrentUser();
+  }
+
+  @Benchmark
+  public CurrentUser uncached() {
+    currentUserService.invalidateUser(EMAIL);
+    return currentUserService.getCurrentUser();
+  }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+/**
+ * Repository findAll for each table against H2, as the /all endpoints call
+ * it when their cached body is stale. Restaurants and organizations are
+ * answered from the second-level query cache after the first call, the
+ * others go to the database every time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+  @Param({ "1000", "10000" })
+  int rows;
+
+  ConfigurableApplicationContext context;
+
+  RestaurantRepository restaurantRepository;
+  UCSBDateRepository ucsbDateRepository;
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+  UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+  UCSBOrganizationsRepository ucsbOrganizationsRepository;
+  UserRepository userRepository;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkApplication.start("repositories" + rows);
+    restaurantRepository = context.getBean(RestaurantRepository.class);
+    ucsbDateRepository = context.getBean(UCSBDateRepository.class);
+    ucsbDiningCommonsRepository = context.getBean(UCSBDiningCommonsRepository.class);
+    ucsbDiningCommonsMenuItemsRepository = context.getBean(UCSBDiningCommonsMenuItemsRepository.class);
+    ucsbOrganizationsRepository = context.getBean(UCSBOrganizationsRepository.class);
+    userRepository = context.getBean(UserRepository.class);
+
+    restaurantRepository.saveAll(BenchmarkData.restaurants(rows, false));
+    ucsbDateRepository.saveAll(BenchmarkData.dates(rows, false));
+    ucsbDiningCommonsRepository.saveAll(BenchmarkData.commons(rows));
+    ucsbDiningCommonsMenuItemsRepository.saveAll(BenchmarkData.menuItems(rows, false));
+    ucsbOrganizationsRepository.saveAll(BenchmarkData.organizations(rows));
+    userRepository.saveAll(BenchmarkData.users(rows, false));
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public Object restaurants() {
+    return restaurantRepository.findAll();
+  }
+
+  @Benchmark
+  public Object ucsbDates() {
+    return ucsbDateRepository.findAll();
+  }
+
+  @Benchmark
+  public Object ucsbDiningCommons() {
+    return ucsbDiningCommonsRepository.findAll();
+  }
+
+  @Benchmark
+  public Object ucsbDiningCommonsMenuItems() {
+    return ucsbDiningCommonsMenuItemsRepository.findAll();
+  }
+
+  @Benchmark
+  public Object ucsbOrganizations() {
+    return ucsbOrganizationsRepository.findAll();
+  }
+
+  @Benchmark
+  public Object users() {
+    return userRepository.findAll();
+  }
+}
@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.config.SecurityConfig;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminStatusService;
+import edu.ucsb.cs156.example.services.CurrentUserServiceImpl;
+
+/**
+ * SecurityConfig's userAuthoritiesMapper, which runs at every login and loads
+ * the user once through CurrentUserServiceImpl.loginUser: for an email in
+ * app.admin.emails, a user with the admin flag, and a user who is neither.
+ * The users table is a mock, so this measures the code around the lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+  @Param({ "phtcon@ucsb.edu", "flagged@ucsb.edu", "someone@gmail.com" })
+  String email;
+
+  GrantedAuthoritiesMapper mapper;
+  Collection<? extends GrantedAuthority> authorities;
+
+  @Setup
+  public void setUp() {
+    UserRepository userRepository = Mockito.mock(UserRepository.class);
+    Mockito.when(userRepository.findByEmail("flagged@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("flagged@ucsb.edu").admin(true).build()));
+
+    AdminStatusService adminStatusService = new AdminStatusService();
+    ReflectionTestUtils.setField(adminStatusService, "adminEmailList", List.of("phtcon@ucsb.edu"));
+    ReflectionTestUtils.invokeMethod(adminStatusService, "init");
+
+    CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+    ReflectionTestUtils.setField(currentUserService, "userRepository", userRepository);
+    ReflectionTestUtils.setField(currentUserService, "adminStatusService", adminStatusService);
+    ReflectionTestUtils.setField(currentUserService, "cacheMaximumSize", 10000L);
+    ReflectionTestUtils.setField(currentUserService, "cacheTtlSeconds", 300L);
+    ReflectionTestUtils.invokeMethod(currentUserService, "initUserCache");
+
+    SecurityConfig securityConfig = new SecurityConfig();
+    ReflectionTestUtils.setField(securityConfig, "currentUserService", currentUserService);
+    mapper = ReflectionTestUtils.invokeMethod(securityConfig, "userAuthoritiesMapper");
+
+    authorities = List.of(new OAuth2UserAuthority(Map.of("email", email, "sub", "1234", "email_verified", true)));
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> userAuthoritiesMapper() {
+    return mapper.mapAuthorities(authorities);
+  }
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Jackson serialization of each entity's list, as the /all endpoints do it,
+ * in each format the API offers (JSON, Smile, CBOR), at 1k, 10k and 100k
+ * rows. Mappers come from Spring's Jackson2ObjectMapperBuilder, like the
+ * application's; narrow the matrix with e.g. -p entity=User -p format=json.
+ *
+ * Each trial also prints the encoded payload size, per row and against JSON,
+ * since the smaller body is half the case for the binary formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+  @Param({ "Restaurant", "UCSBDate", "UCSBDiningCommons", "UCSBDiningCommonsMenuItem", "UCSBOrganizations", "User" })
+  String entity;
+
+  @Param({ "1000", "10000", "100000" })
+  int rows;
+
+  @Param({ "json", "smile", "cbor" })
+  String format;
+
+  ObjectMapper mapper;
+  JavaType listType;
+  List<?> list;
+  byte[] bytes;
+
+  static ObjectMapper mapper(String format) {
+    Jackson2ObjectMapperBuilder builder = switch (format) {
+      case "smile" -> Jackson2ObjectMapperBuilder.smile();
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+      default -> Jackson2ObjectMapperBuilder.json();
+    };
+    // as Boot configures it: ISO-8601 dates
+    return builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+  }
+
+  @Setup
+  public void setUp() throws Exception {
+    mapper = mapper(format);
+    listType = mapper.getTypeFactory().constructCollectionType(List.class, BenchmarkData.type(entity));
+    list = BenchmarkData.rows(entity, rows, true);
+    bytes = mapper.writeValueAsBytes(list);
+
+    long jsonBytes = mapper("json").writeValueAsBytes(list).length;
+    System.out.printf("%n%s x %d as %s: %d bytes, %.1f per row, %.1f%% of json%n",
+        entity, rows, format, bytes.length, (double) bytes.length / rows, 100.0 * bytes.length / jsonBytes);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws Exception {
+    return mapper.writeValueAsBytes(list);
+  }
+
+  @Benchmark
+  public List<?> deserialize() throws Exception {
+    return mapper.readValue(bytes, listType);
+  }
+}
@@ -1,19 +1,39 @@
 package edu.ucsb.cs156.example.aop;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Times every controller method with a Micrometer Timer named
+ * app.controller.requests, tagged by controller, method, status and exception,
+ * with a percentile histogram so latency percentiles can be aggregated across
+ * instances.
+ *
+ * The status is the one the method produced: the ResponseEntity's status, or
+ * the servlet response's; if the method threw, it is "error" and the
+ * exception tag names the exception (exception handlers pick the real status
+ * later). A sample of requests (app.controllerLogging.sampleRate) is logged
+ * at INFO; with this logger at DEBUG, every request is.
+ */
 @Slf4j
 @Aspect
 @Component
@@ -28,25 +48,92 @@ public class LoggingAspect {
       @annotation(org.springframework.web.bind.annotation.PatchMapping)
       """;
 
-  private ArrayList<String> stoplist = new ArrayList<String>(Arrays.asList(
-      "edu.ucsb.cs156.example.controllers.FrontendProxyController"));
+  public static final String TIMER = "app.controller.requests";
 
-  @Before(pointcut)
-  public void logControllers(JoinPoint joinPoint) {
+  private static final Set<String> stoplist = Set.of(
+      "edu.ucsb.cs156.example.controllers.FrontendProxyController");
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Value("${app.controllerLogging.sampleRate:0.01}")
+  double sampleRate;
+
+  // Timer.builder(...).register() looks the meter up again on every call;
+  // keyed by method, status and exception, so each is built once
+  final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+  @Around(pointcut)
+  public Object timeControllers(ProceedingJoinPoint joinPoint) throws Throwable {
+    String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
+    if (stoplist.contains(declaringTypeName)) {
+      return joinPoint.proceed();
+    }
+
+    long start = System.nanoTime();
+    String status = "error";
+    String exception = "none";
+    try {
+      Object result = joinPoint.proceed();
+      status = statusOf(result);
+      return result;
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      long elapsed = System.nanoTime() - start;
+      timer(joinPoint, status, exception).record(elapsed, TimeUnit.NANOSECONDS);
+
+      if (log.isDebugEnabled() || (log.isInfoEnabled() && sampled())) {
+        logRequest(joinPoint, status, elapsed);
+      }
+    }
+  }
+
+  private Timer timer(ProceedingJoinPoint joinPoint, String status, String exception) {
+    String key = joinPoint.getSignature().getDeclaringTypeName() + "." + joinPoint.getSignature().getName()
+        + " " + status + " " + exception;
+    return timers.computeIfAbsent(key, k -> Timer.builder(TIMER)
+        .tag("controller", joinPoint.getSignature().getDeclaringType().getSimpleName())
+        .tag("method", joinPoint.getSignature().getName())
+        .tag("status", status)
+        .tag("exception", exception)
+        .publishPercentileHistogram()
+        .register(meterRegistry));
+  }
+
+  boolean sampled() {
+    return sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private static void logRequest(ProceedingJoinPoint joinPoint, String status, long elapsedNanos) {
     getCurrentHttpRequest().ifPresent(
-        request -> {
-          String declaringTypeName = joinPoint.getSignature().getDeclaringTypeName();
-          if (!stoplist.contains(declaringTypeName)) {
-            log.info("===== %s %s handled by %s in %s".formatted(request.getMethod(), request.getRequestURI(),
-                joinPoint.getSignature().getName(), declaringTypeName));
-          }
-        });
+        request -> log.info("===== {} {} handled by {} in {}: {} in {} ms",
+            request.getMethod(), request.getRequestURI(),
+            joinPoint.getSignature().getName(), joinPoint.getSignature().getDeclaringTypeName(),
+            status, TimeUnit.NANOSECONDS.toMillis(elapsedNanos)));
   }
 
-  private static Optional<HttpServletRequest> getCurrentHttpRequest() {
+  private static String statusOf(Object result) {
+    if (result instanceof ResponseEntity<?> entity) {
+      return Integer.toString(entity.getStatusCodeValue());
+    }
+    return getCurrentHttpResponseStatus().map(String::valueOf).orElse("200");
+  }
+
+  private static Optional<ServletRequestAttributes> getCurrentAttributes() {
     return Optional.ofNullable(RequestContextHolder.getRequestAttributes())
         .filter(ServletRequestAttributes.class::isInstance)
-        .map(ServletRequestAttributes.class::cast)
-        .map(ServletRequestAttributes::getRequest);
+        .map(ServletRequestAttributes.class::cast);
+  }
+
+  private static Optional<HttpServletRequest> getCurrentHttpRequest() {
+    return getCurrentAttributes().map(ServletRequestAttributes::getRequest);
+  }
+
+  private static Optional<Integer> getCurrentHttpResponseStatus() {
+    return getCurrentAttributes()
+        .map(ServletRequestAttributes::getResponse)
+        .map(HttpServletResponse::getStatus);
   }
 }
@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import edu.ucsb.cs156.example.services.QueryStatsService;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the DataSource in a datasource-proxy that reports every statement to
+ * QueryStatsService, which counts them per HTTP request with QueryCountFilter,
+ * and to SlowQueryService, which keeps the slow ones.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+  // static, and the service looked up lazily, so that post-processing the
+  // DataSource doesn't force everything else to be created early
+  @Bean
+  static BeanPostProcessor queryCountingDataSourcePostProcessor(ObjectProvider<QueryStatsService> queryStatsService,
+      ObjectProvider<SlowQueryService> slowQueryService) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+          return ProxyDataSourceBuilder.create(dataSource)
+              .name(beanName)
+              .listener(queryStatsService.getObject())
+              .listener(slowQueryService.getObject())
+              .build();
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Bean
+  public FilterRegistrationBean<QueryCountFilter> queryCountFilter(QueryStatsService queryStatsService,
+      @Value("${app.queryCount.headers:false}") boolean headers) {
+    FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(
+        new QueryCountFilter(queryStatsService, headers));
+    registration.addUrlPatterns("/api/*");
+    // ahead of Spring Security, so statements it runs are counted too
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+    return registration;
+  }
+}
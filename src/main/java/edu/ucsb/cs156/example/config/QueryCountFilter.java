@@ -0,0 +1,112 @@
+package edu.ucsb.cs156.example.config;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import edu.ucsb.cs156.example.models.QueryStats;
+import edu.ucsb.cs156.example.services.QueryStatsService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counts the SQL statements each API request runs and logs a warning when
+ * QueryStatsService finds too many, or one repeated too often. For an async
+ * request the warning waits until the async processing completes, so that a
+ * StreamingResponseBody wrapped with QueryStatsService.counted() is included.
+ * Statements on other async threads are not counted.
+ *
+ * With app.queryCount.headers=true the counts so far are also sent as
+ * X-Query-Count and X-Query-Time-Ms (milliseconds in the database). They are
+ * added when the response is committed, so statements run after that (e.g.
+ * while streaming a body) are in the warning but not the headers.
+ */
+@Slf4j
+public class QueryCountFilter extends OncePerRequestFilter {
+
+  public static final String COUNT_HEADER = "X-Query-Count";
+  public static final String TIME_HEADER = "X-Query-Time-Ms";
+
+  private final QueryStatsService queryStatsService;
+
+  private final boolean headers;
+
+  public QueryCountFilter(QueryStatsService queryStatsService, boolean headers) {
+    this.queryStatsService = queryStatsService;
+    this.headers = headers;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    queryStatsService.start();
+    HeaderWritingResponse wrapped = new HeaderWritingResponse(response);
+    try {
+      chain.doFilter(request, headers ? wrapped : response);
+    } finally {
+      if (headers && !response.isCommitted()) {
+        wrapped.writeHeaders();
+      }
+      Supplier<QueryStats> stats = queryStatsService.detach();
+      if (request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new AsyncListener() {
+          @Override
+          public void onComplete(AsyncEvent event) {
+            logWarnings(request, stats.get());
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {
+          }
+        });
+      } else {
+        logWarnings(request, stats.get());
+      }
+    }
+  }
+
+  private void logWarnings(HttpServletRequest request, QueryStats stats) {
+    for (String warning : queryStatsService.warnings(stats)) {
+      log.warn("{} {}: {}", request.getMethod(), request.getRequestURI(), warning);
+    }
+  }
+
+  private class HeaderWritingResponse extends OnCommittedResponseWrapper {
+    private boolean written;
+
+    HeaderWritingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    protected void onResponseCommitted() {
+      writeHeaders();
+    }
+
+    void writeHeaders() {
+      if (written) {
+        return;
+      }
+      written = true;
+      QueryStats stats = queryStatsService.snapshot();
+      setHeader(COUNT_HEADER, Long.toString(stats.getStatements()));
+      setHeader(TIME_HEADER, Long.toString(stats.getElapsedMillis()));
+    }
+  }
+}
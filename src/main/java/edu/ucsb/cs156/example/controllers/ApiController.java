@@ -1,22 +1,42 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.EntityAlreadyExistsException;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.PayloadTooLargeException;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.ListResponseService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.servlet.http.HttpServletResponse;
 
 @Slf4j
 public abstract class ApiController {
+  public static final int MAX_PAGE_SIZE = 1000;
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private ListResponseService listResponseService;
+
   protected CurrentUser getCurrentUser() {
     return currentUserService.getCurrentUser();
   }
@@ -25,6 +45,56 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * Page request for keyset pagination; fetches one row more than the limit
+   * so that KeysetPage.of can tell whether there is a next page.
+   */
+  protected PageRequest keysetPageRequest(int limit) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE) {
+      throw new BadRequestException("limit must be between 1 and %d".formatted(MAX_PAGE_SIZE));
+    }
+    return PageRequest.of(0, limit + 1);
+  }
+
+  /**
+   * A cursor without a limit would otherwise fall through to the unpaged
+   * mapping and silently return the whole table, so reject it everywhere.
+   */
+  @ModelAttribute
+  public void rejectCursorWithoutLimit(
+      @RequestParam(name = "after", required = false) String after,
+      @RequestParam(name = "limit", required = false) String limit) {
+    if (after != null && limit == null) {
+      throw new BadRequestException("after requires limit");
+    }
+  }
+
+  /**
+   * Whole-table listing with conditional GET: tags the response with the
+   * table's current ETag and answers 304 (returning null) if the client
+   * already holds it; otherwise sends the cached serialized bytes for that
+   * version, in the format picked from Accept (JSON, Smile or CBOR) and
+   * gzipped when the client accepts it. Cache-Control overrides Spring
+   * Security's no-store so that browsers keep the body and revalidate with
+   * If-None-Match.
+   */
+  protected ResponseEntity<byte[]> listResponse(ServletWebRequest request, Class<?> table, Supplier<?> rows) {
+    MediaType format = listResponseService.format(request.getHeader(HttpHeaders.ACCEPT));
+    boolean gzip = listResponseService.gzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    HttpServletResponse response = request.getResponse();
+    response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePrivate().getHeaderValue());
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (request.checkNotModified(listResponseService.etag(table, format, gzip))) {
+      return null;
+    }
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok().contentType(format);
+    if (gzip) {
+      ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return ok.body(listResponseService.list(table, rows, format, gzip));
+  }
+
   @ExceptionHandler({ EntityNotFoundException.class })
   @ResponseStatus(HttpStatus.NOT_FOUND)
   public Object handleGenericException(Throwable e) {
@@ -33,4 +103,31 @@ public abstract class ApiController {
       "message", e.getMessage()
     );
   }
+
+  @ExceptionHandler({ EntityAlreadyExistsException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleConflict(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ PayloadTooLargeException.class })
+  @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+  public Object handlePayloadTooLarge(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
+
+  @ExceptionHandler({ BadRequestException.class })
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleBadRequest(Throwable e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", e.getMessage()
+    );
+  }
 }
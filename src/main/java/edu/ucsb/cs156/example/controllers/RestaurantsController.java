@@ -1,14 +1,18 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.RestaurantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,23 +22,61 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.util.List;
+import java.util.Map;
+
 @Tag(name = "Restaurants")
 @RequestMapping("/api/restaurants")
 @RestController
 public class RestaurantsController extends ApiController {
 
     @Autowired
-    RestaurantRepository restaurantRepository;
+    RestaurantService restaurantService;
+
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
 
     @Operation(summary = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
-        Iterable<Restaurant> restaurants = restaurantRepository.findAll();
-        return restaurants;
+    public ResponseEntity<byte[]> allRestaurants(ServletWebRequest request) {
+        return listResponse(request, Restaurant.class, restaurantService::findAll);
+    }
+
+    @Operation(summary = "List all restaurants, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit" })
+    public List<Map<String, Object>> allRestaurantFields(
+            @Parameter(name = "fields", description = "comma-separated field names, e.g. name,description") @RequestParam List<String> fields) {
+        return projectionService.findAll(Restaurant.class, fields);
+    }
+
+    @Operation(summary = "List restaurants one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<Restaurant> pageOfRestaurants(
+            @Parameter(name = "after", description = "nextCursor from the previous page; omit for the first page") @RequestParam(required = false) Long after,
+            @Parameter(name = "limit") @RequestParam int limit) {
+        List<Restaurant> restaurants = restaurantService.findPageAfter(
+                after == null ? Long.MIN_VALUE : after, keysetPageRequest(limit));
+        return KeysetPage.of(restaurants, limit, r -> Long.toString(r.getId()));
+    }
+
+    @Operation(summary = "Stream all restaurants as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllRestaurants() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(restaurantService::streamAll));
     }
 
     @Operation(summary = "Get a single restaurant")
@@ -42,10 +84,16 @@ public class RestaurantsController extends ApiController {
     @GetMapping("")
     public Restaurant getById(
             @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+        return restaurantService.getById(id);
+    }
 
-        return restaurant;
+    @Operation(summary = "Get the requested fields of a single restaurant")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "fields")
+    public Map<String, Object> getFieldsById(
+            @Parameter(name = "id") @RequestParam Long id,
+            @Parameter(name = "fields", description = "comma-separated field names, e.g. name,description") @RequestParam List<String> fields) {
+        return projectionService.getById(Restaurant.class, id, fields);
     }
 
     @Operation(summary = "Create a new restaurant")
@@ -59,7 +107,7 @@ public class RestaurantsController extends ApiController {
         restaurant.setName(name);
         restaurant.setDescription(description);
         
-        Restaurant savedrestaurant = restaurantRepository.save(restaurant);
+        Restaurant savedrestaurant = restaurantService.create(restaurant);
         return savedrestaurant;
     }
 
@@ -68,10 +116,7 @@ public class RestaurantsController extends ApiController {
     @DeleteMapping("")
     public Object deleteRestaurant(
             @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurantRepository.delete(restaurant);
+        restaurantService.delete(id);
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
@@ -82,14 +127,6 @@ public class RestaurantsController extends ApiController {
             @Parameter(name = "id") @RequestParam Long id,
             @RequestBody @Valid Restaurant incoming) {
 
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurant.setName(incoming.getName());
-        restaurant.setDescription(incoming.getDescription());
-
-        restaurantRepository.save(restaurant);
-
-        return restaurant;
+        return restaurantService.update(id, incoming);
     }
 }
\ No newline at end of file
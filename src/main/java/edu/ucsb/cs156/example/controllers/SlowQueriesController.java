@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.controllers;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@Tag(name = "Slow queries (admin only)")
+@RequestMapping("/api/admin/slowqueries")
+@RestController
+public class SlowQueriesController extends ApiController {
+
+    @Autowired
+    SlowQueryService slowQueryService;
+
+    @Operation(summary= "The most recent slow SQL statements, newest first, with bind values and the controller method that ran them")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<SlowQuery> slowQueries() {
+        return slowQueryService.recent();
+    }
+
+    @Operation(summary= "Forget the recorded slow statements")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @DeleteMapping("")
+    public Object clearSlowQueries() {
+        slowQueryService.clear();
+        return genericMessage("Slow queries cleared");
+    }
+}
@@ -1,8 +1,11 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UCSBDateService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +15,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +28,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
 
 @Tag(name = "UCSBDates")
 @RequestMapping("/api/ucsbdates")
@@ -34,14 +45,70 @@ import java.time.LocalDateTime;
 public class UCSBDatesController extends ApiController {
 
     @Autowired
-    UCSBDateRepository ucsbDateRepository;
+    UCSBDateService ucsbDateService;
+
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
 
     @Operation(summary= "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
-        Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
-        return dates;
+    public ResponseEntity<byte[]> allUCSBDates(ServletWebRequest request) {
+        return listResponse(request, UCSBDate.class, ucsbDateService::findAll);
+    }
+
+    @Operation(summary= "List all ucsb dates, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit" })
+    public List<Map<String, Object>> allUCSBDateFields(
+            @Parameter(name="fields", description="comma-separated field names, e.g. name,quarterYYYYQ") @RequestParam List<String> fields) {
+        return projectionService.findAll(UCSBDate.class, fields);
+    }
+
+    @Operation(summary= "List ucsb dates one page at a time, ordered by localDateTime (undated first) then id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDate> pageOfUCSBDates(
+            @Parameter(name="after", description="nextCursor from the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Pageable pageable = keysetPageRequest(limit);
+        List<UCSBDate> dates;
+        if (after == null) {
+            dates = ucsbDateService.findFirstPage(pageable);
+        } else {
+            int comma = after.lastIndexOf(',');
+            if (comma < 0) {
+                throw new BadRequestException("Invalid cursor: %s".formatted(after));
+            }
+            try {
+                LocalDateTime localDateTime = LocalDateTime.parse(after.substring(0, comma));
+                long id = Long.parseLong(after.substring(comma + 1));
+                dates = ucsbDateService.findPageAfter(localDateTime, id, pageable);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new BadRequestException("Invalid cursor: %s".formatted(after));
+            }
+        }
+        return KeysetPage.of(dates, limit, ucsbDateService::cursorOf);
+    }
+
+    @Operation(summary= "List the ucsb dates in one quarter")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/quarter")
+    public List<UCSBDate> datesInQuarter(
+            @Parameter(name="quarterYYYYQ", description="quarter in the format YYYYQ, e.g. 20224 for Fall 2022") @RequestParam String quarterYYYYQ) {
+        return ucsbDateService.findByQuarter(quarterYYYYQ);
+    }
+
+    @Operation(summary= "Stream all ucsb dates as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllUCSBDates() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(ucsbDateService::streamAll));
     }
 
     @Operation(summary= "Get a single date")
@@ -49,10 +116,16 @@ public class UCSBDatesController extends ApiController {
     @GetMapping("")
     public UCSBDate getById(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+        return ucsbDateService.getById(id);
+    }
 
-        return ucsbDate;
+    @Operation(summary= "Get the requested fields of a single date")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "fields")
+    public Map<String, Object> getFieldsById(
+            @Parameter(name="id") @RequestParam Long id,
+            @Parameter(name="fields", description="comma-separated field names, e.g. name,quarterYYYYQ") @RequestParam List<String> fields) {
+        return projectionService.getById(UCSBDate.class, id, fields);
     }
 
     @Operation(summary= "Create a new date")
@@ -74,7 +147,7 @@ public class UCSBDatesController extends ApiController {
         ucsbDate.setName(name);
         ucsbDate.setLocalDateTime(localDateTime);
 
-        UCSBDate savedUcsbDate = ucsbDateRepository.save(ucsbDate);
+        UCSBDate savedUcsbDate = ucsbDateService.create(ucsbDate);
 
         return savedUcsbDate;
     }
@@ -84,10 +157,7 @@ public class UCSBDatesController extends ApiController {
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        ucsbDateRepository.delete(ucsbDate);
+        ucsbDateService.delete(id);
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
@@ -98,15 +168,6 @@ public class UCSBDatesController extends ApiController {
             @Parameter(name="id") @RequestParam Long id,
             @RequestBody @Valid UCSBDate incoming) {
 
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
-        ucsbDate.setName(incoming.getName());
-        ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
-
-        ucsbDateRepository.save(ucsbDate);
-
-        return ucsbDate;
+        return ucsbDateService.update(id, incoming);
     }
 }
@@ -1,8 +1,11 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,6 +13,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +24,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.util.List;
+import java.util.Map;
+
 @Tag(name = "UCSBDiningCommons")
 @RequestMapping("/api/ucsbdiningcommons")
 @RestController
@@ -29,14 +39,54 @@ import javax.validation.Valid;
 public class UCSBDiningCommonsController extends ApiController {
 
     @Autowired
-    UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+    UCSBDiningCommonsService ucsbDiningCommonsService;
+
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
 
     @Operation(summary= "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
-        return commons;
+    public ResponseEntity<byte[]> allCommonss(ServletWebRequest request) {
+        return listResponse(request, UCSBDiningCommons.class, ucsbDiningCommonsService::findAll);
+    }
+
+    @Operation(summary= "List all ucsb dining commons, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit" })
+    public List<Map<String, Object>> allCommonsFields(
+            @Parameter(name="fields", description="comma-separated field names, e.g. code,name") @RequestParam List<String> fields) {
+        return projectionService.findAll(UCSBDiningCommons.class, fields);
+    }
+
+    @Operation(summary= "List ucsb dining commons one page at a time, ordered by code")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommons> pageOfCommons(
+            @Parameter(name="after", description="nextCursor from the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        List<UCSBDiningCommons> commons = ucsbDiningCommonsService.findPageAfter(
+                after == null ? "" : after, keysetPageRequest(limit));
+        return KeysetPage.of(commons, limit, UCSBDiningCommons::getCode);
+    }
+
+    @Operation(summary= "Stream all ucsb dining commons as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllCommons() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(ucsbDiningCommonsService::streamAll));
+    }
+
+    @Operation(summary= "Hit/miss counters for the in-memory dining commons cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/cache/stats")
+    public CacheStats cacheStats() {
+        return ucsbDiningCommonsService.stats();
     }
 
     @Operation(summary= "Get a single commons")
@@ -44,12 +94,20 @@ public class UCSBDiningCommonsController extends ApiController {
     @GetMapping("")
     public UCSBDiningCommons getById(
             @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
+        UCSBDiningCommons commons = ucsbDiningCommonsService.getById(code);
 
         return commons;
     }
 
+    @Operation(summary= "Get the requested fields of a single commons")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "fields")
+    public Map<String, Object> getFieldsById(
+            @Parameter(name="code") @RequestParam String code,
+            @Parameter(name="fields", description="comma-separated field names, e.g. code,name") @RequestParam List<String> fields) {
+        return projectionService.getById(UCSBDiningCommons.class, code, fields);
+    }
+
     @Operation(summary= "Create a new commons")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
@@ -73,7 +131,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLatitude(latitude);
         commons.setLongitude(longitude);
 
-        UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        UCSBDiningCommons savedCommons = ucsbDiningCommonsService.create(commons);
 
         return savedCommons;
     }
@@ -83,10 +141,7 @@ public class UCSBDiningCommonsController extends ApiController {
     @DeleteMapping("")
     public Object deleteCommons(
             @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-        ucsbDiningCommonsRepository.delete(commons);
+        ucsbDiningCommonsService.delete(code);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
@@ -97,19 +152,6 @@ public class UCSBDiningCommonsController extends ApiController {
             @Parameter(name="code") @RequestParam String code,
             @RequestBody @Valid UCSBDiningCommons incoming) {
 
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-
-        commons.setName(incoming.getName());  
-        commons.setHasSackMeal(incoming.getHasSackMeal());
-        commons.setHasTakeOutMeal(incoming.getHasTakeOutMeal());
-        commons.setHasDiningCam(incoming.getHasDiningCam());
-        commons.setLatitude(incoming.getLatitude());
-        commons.setLongitude(incoming.getLongitude());
-
-        ucsbDiningCommonsRepository.save(commons);
-
-        return commons;
+        return ucsbDiningCommonsService.update(code, incoming);
     }
 }
@@ -1,15 +1,26 @@
 package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.PayloadTooLargeException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsMenuItemService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +30,17 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Tag(name = "UCSBDiningCommonsMenuItems")
 @RequestMapping("/api/ucsbdiningcommonsmenuitem")
 @RestController
@@ -29,14 +48,53 @@ import javax.validation.Valid;
 public class UCSBDiningCommonsMenuItemController extends ApiController {
     
     @Autowired
-    UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+    UCSBDiningCommonsMenuItemService ucsbDiningCommonsMenuItemService;
+
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
+
+    @Autowired
+    ObjectMapper mapper;
+
+    @Value("${app.bulkInsert.maxRows:1000}")
+    int bulkMaxRows;
     
     @Operation(summary= "List food items in UCSB Dining Commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all") 
-    public Iterable<UCSBDiningCommonsMenuItem> allItemss() {
-        Iterable<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemsRepository.findAll();
-        return items;
+    public ResponseEntity<byte[]> allItemss(ServletWebRequest request) {
+        return listResponse(request, UCSBDiningCommonsMenuItem.class, ucsbDiningCommonsMenuItemService::findAll);
+    }
+
+    @Operation(summary= "List all food items in UCSB Dining Commons, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit" })
+    public List<Map<String, Object>> allItemFields(
+            @Parameter(name="fields", description="comma-separated field names, e.g. name,station") @RequestParam List<String> fields) {
+        return projectionService.findAll(UCSBDiningCommonsMenuItem.class, fields);
+    }
+
+    @Operation(summary= "List food items one page at a time, ordered by id")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommonsMenuItem> pageOfItems(
+            @Parameter(name="after", description="nextCursor from the previous page; omit for the first page") @RequestParam(required = false) Long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        List<UCSBDiningCommonsMenuItem> items = ucsbDiningCommonsMenuItemService.findPageAfter(
+                after == null ? Long.MIN_VALUE : after, keysetPageRequest(limit));
+        return KeysetPage.of(items, limit, i -> Long.toString(i.getId()));
+    }
+
+    @Operation(summary= "Stream all food items as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(ucsbDiningCommonsMenuItemService::streamAll));
     }
 
     @Operation(summary= "Get a single item")
@@ -44,10 +102,16 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
     @GetMapping("")
     public UCSBDiningCommonsMenuItem getById(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem items = ucsbDiningCommonsMenuItemsRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
+        return ucsbDiningCommonsMenuItemService.getById(id);
+    }
 
-        return items;
+    @Operation(summary= "Get the requested fields of a single item")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "fields")
+    public Map<String, Object> getFieldsById(
+            @Parameter(name="id") @RequestParam Long id,
+            @Parameter(name="fields", description="comma-separated field names, e.g. name,station") @RequestParam List<String> fields) {
+        return projectionService.getById(UCSBDiningCommonsMenuItem.class, id, fields);
     }
 
     @Operation(summary= "Create a new item")
@@ -65,20 +129,37 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
         item.setName(name);
         item.setStation(station);
 
-        UCSBDiningCommonsMenuItem savedItem = ucsbDiningCommonsMenuItemsRepository.save(item);
+        UCSBDiningCommonsMenuItem savedItem = ucsbDiningCommonsMenuItemService.create(item);
 
         return savedItem;
     }
 
+    @Operation(summary= "Create many items at once from a JSON array or newline-delimited JSON (application/x-ndjson)")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping(value = "/bulk", consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public Object postItemsBulk(InputStream body) throws IOException {
+        List<UCSBDiningCommonsMenuItem> items = new ArrayList<>();
+        try (MappingIterator<UCSBDiningCommonsMenuItem> values = mapper.readerFor(UCSBDiningCommonsMenuItem.class).readValues(body)) {
+            while (values.hasNextValue()) {
+                if (items.size() == bulkMaxRows) {
+                    throw new PayloadTooLargeException("At most %d items can be posted at once".formatted(bulkMaxRows));
+                }
+                items.add(values.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed JSON: %s".formatted(e.getOriginalMessage()));
+        }
+
+        int created = ucsbDiningCommonsMenuItemService.createAll(items);
+        return genericMessage("%d UCSBDiningCommonsMenuItems created".formatted(created));
+    }
+
     @Operation(summary= "Delete a UCSBDiningCommonsMenuItem")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
     public Object deleteItem(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem item = ucsbDiningCommonsMenuItemsRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        ucsbDiningCommonsMenuItemsRepository.delete(item);
+        ucsbDiningCommonsMenuItemService.delete(id);
         return genericMessage("UCSBDiningCommonsMenuItem with id %s deleted".formatted(id));
     }
 
@@ -89,16 +170,7 @@ public class UCSBDiningCommonsMenuItemController extends ApiController {
             @Parameter(name="id") @RequestParam Long id,
             @RequestBody @Valid UCSBDiningCommonsMenuItem  incoming) {
 
-        UCSBDiningCommonsMenuItem item = ucsbDiningCommonsMenuItemsRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        item.setDiningCommonsCode(incoming.getDiningCommonsCode());
-        item.setName(incoming.getName());
-        item.setStation(incoming.getStation());
-
-        ucsbDiningCommonsMenuItemsRepository.save(item);
-
-        return item;
+        return ucsbDiningCommonsMenuItemService.update(id, incoming);
     }    
 
 }
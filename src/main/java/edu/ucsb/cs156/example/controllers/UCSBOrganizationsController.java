@@ -2,8 +2,10 @@ package edu.ucsb.cs156.example.controllers;
 
 
 import edu.ucsb.cs156.example.entities.UCSBOrganizations;
-import edu.ucsb.cs156.example.errors.EntityNotFoundException;
-import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UCSBOrganizationsService;
 
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,6 +17,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -24,10 +28,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import javax.validation.Valid;
 
+import java.util.List;
+import java.util.Map;
+
 
 @Tag(name = "UCSBOrganizations")
 @RequestMapping("/api/ucsborganizations")
@@ -37,15 +46,48 @@ public class UCSBOrganizationsController extends ApiController {
 
 
     @Autowired
-    UCSBOrganizationsRepository ucsbOrganizationsRepository;
+    UCSBOrganizationsService ucsbOrganizationsService;
+
+    @Autowired
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
 
 
     @Operation(summary = "List all ucsb organizations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBOrganizations> allOrganizations() {
-        Iterable<UCSBOrganizations> organizations = ucsbOrganizationsRepository.findAll();
-        return organizations;
+    public ResponseEntity<byte[]> allOrganizations(ServletWebRequest request) {
+        return listResponse(request, UCSBOrganizations.class, ucsbOrganizationsService::findAll);
+    }
+
+    @Operation(summary = "List all ucsb organizations, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = { "fields", "!limit" })
+    public List<Map<String, Object>> allOrganizationFields(
+            @Parameter(name = "fields", description = "comma-separated field names, e.g. orgCode,orgTranslationShort") @RequestParam List<String> fields) {
+        return projectionService.findAll(UCSBOrganizations.class, fields);
+    }
+
+    @Operation(summary = "List ucsb organizations one page at a time, ordered by orgCode")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBOrganizations> pageOfOrganizations(
+            @Parameter(name="after", description="nextCursor from the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        List<UCSBOrganizations> organizations = ucsbOrganizationsService.findPageAfter(
+                after == null ? "" : after, keysetPageRequest(limit));
+        return KeysetPage.of(organizations, limit, UCSBOrganizations::getOrgCode);
+    }
+
+    @Operation(summary = "Stream all ucsb organizations as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/all/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllOrganizations() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(ucsbOrganizationsService::streamAll));
     }
 
     @Operation(summary = "Get a single organization")
@@ -53,12 +95,20 @@ public class UCSBOrganizationsController extends ApiController {
     @GetMapping("")
     public UCSBOrganizations getById(
             @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrganizations organizations = ucsbOrganizationsRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganizations.class, orgCode));
+        UCSBOrganizations organizations = ucsbOrganizationsService.getById(orgCode);
        
         return organizations;
     }
 
+    @Operation(summary = "Get the requested fields of a single organization")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "", params = "fields")
+    public Map<String, Object> getFieldsById(
+            @Parameter(name = "orgCode") @RequestParam String orgCode,
+            @Parameter(name = "fields", description = "comma-separated field names, e.g. orgCode,orgTranslationShort") @RequestParam List<String> fields) {
+        return projectionService.getById(UCSBOrganizations.class, orgCode, fields);
+    }
+
 
     @Operation(summary = "Create a new organization")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
@@ -77,7 +127,7 @@ public class UCSBOrganizationsController extends ApiController {
             organizations.setInactive(inactive);
 
 
-            UCSBOrganizations savedOrganization = ucsbOrganizationsRepository.save(organizations);
+            UCSBOrganizations savedOrganization = ucsbOrganizationsService.create(organizations);
 
 
             return savedOrganization;
@@ -88,10 +138,7 @@ public class UCSBOrganizationsController extends ApiController {
     @DeleteMapping("")
     public Object deleteOrganization(
             @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrganizations organizations = ucsbOrganizationsRepository.findById(orgCode)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBOrganizations.class, orgCode));
-        
-        ucsbOrganizationsRepository.delete(organizations);
+        ucsbOrganizationsService.delete(orgCode);
         return genericMessage("UCSBOrganization with id %s deleted".formatted(orgCode));
     }
 
@@ -102,15 +149,6 @@ public class UCSBOrganizationsController extends ApiController {
             @Parameter(name="orgCode") @RequestParam String orgCode,
             @RequestBody @Valid UCSBOrganizations incoming) {
 
-            UCSBOrganizations organizations = ucsbOrganizationsRepository.findById(orgCode)
-                    .orElseThrow(() -> new EntityNotFoundException(UCSBOrganizations.class, orgCode));
-                
-            organizations.setOrgTranslationShort(incoming.getOrgTranslationShort());
-            organizations.setOrgTranslation(incoming.getOrgTranslation());
-            organizations.setInactive(incoming.getInactive());
-
-            ucsbOrganizationsRepository.save(organizations);
-
-            return organizations;
+            return ucsbOrganizationsService.update(orgCode, incoming);
     }
 }
\ No newline at end of file
@@ -1,20 +1,28 @@
 package edu.ucsb.cs156.example.controllers;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UserSearchService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+import java.util.Map;
+
 
 @Tag(name="User information (admin only)")
 @RequestMapping("/api/admin/users")
@@ -24,15 +32,48 @@ public class UsersController extends ApiController {
     UserRepository userRepository;
 
     @Autowired
-    ObjectMapper mapper;
+    JsonStreamingService jsonStreamingService;
+
+    @Autowired
+    ProjectionService projectionService;
+
+    @Autowired
+    UserSearchService userSearchService;
 
     @Operation(summary= "Get a list of all users")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @GetMapping("")
-    public ResponseEntity<String> users()
-            throws JsonProcessingException {
+    public Iterable<User> users() {
         Iterable<User> users = userRepository.findAll();
-        String body = mapper.writeValueAsString(users);
-        return ResponseEntity.ok().body(body);
+        return users;
+    }
+
+    @Operation(summary= "Get a list of all users, with only the requested fields")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "", params = { "fields", "!limit" })
+    public List<Map<String, Object>> userFields(
+            @Parameter(name="fields", description="comma-separated field names, e.g. email,fullName") @RequestParam List<String> fields) {
+        return projectionService.findAll(User.class, fields);
+    }
+
+    @Operation(summary= "List users one page at a time, optionally only those whose email or name starts with search")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "", params = "limit")
+    public KeysetPage<User> pageOfUsers(
+            @Parameter(name="sort", description="id, email or fullName") @RequestParam(defaultValue = "id") String sort,
+            @Parameter(name="search", description="prefix of the email or full name, ignoring case") @RequestParam(required = false) String search,
+            @Parameter(name="after", description="nextCursor from the previous page; omit for the first page") @RequestParam(required = false) String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        List<User> users = userSearchService.findPage(sort, search, after, keysetPageRequest(limit));
+        return KeysetPage.of(users, limit, u -> userSearchService.cursorOf(sort, u));
+    }
+
+    @Operation(summary= "Stream all users as a JSON array, without loading them all into memory")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(jsonStreamingService.stream(userRepository::streamAll));
     }
-}
\ No newline at end of file
+}
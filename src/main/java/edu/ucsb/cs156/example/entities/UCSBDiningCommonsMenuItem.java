@@ -5,6 +5,7 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -17,8 +18,13 @@ import lombok.Builder;
 @Builder
 @Entity(name = "ucsbdiningcommonsmenuitem")
 public class UCSBDiningCommonsMenuItem {
+  // A pooled sequence (rather than IDENTITY) lets Hibernate assign ids
+  // without a round trip per row, so bulk inserts can be batched. The V5
+  // migrations create it and move it past max(id), also when ddl-auto
+  // created it at 1 first.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ucsbdiningcommonsmenuitem_seq")
+  @SequenceGenerator(name = "ucsbdiningcommonsmenuitem_seq", sequenceName = "ucsbdiningcommonsmenuitem_seq", allocationSize = 50)
   private long id;
 
   private String diningCommonsCode;
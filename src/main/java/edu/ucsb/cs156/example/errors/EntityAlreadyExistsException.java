@@ -0,0 +1,8 @@
+package edu.ucsb.cs156.example.errors;
+
+public class EntityAlreadyExistsException extends RuntimeException {
+  public EntityAlreadyExistsException(Class<?> entityType, Object id) {
+    super("%s with id %s already exists"
+      .formatted(entityType.getSimpleName(), id.toString()));
+  }
+}
@@ -0,0 +1,7 @@
+package edu.ucsb.cs156.example.errors;
+
+public class PayloadTooLargeException extends RuntimeException {
+  public PayloadTooLargeException(String message) {
+    super(message);
+  }
+}
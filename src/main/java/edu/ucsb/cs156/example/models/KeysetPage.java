@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ * Pass nextCursor back as ?after= to get the following page;
+ * it is null on the last page.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class KeysetPage<T> {
+  private List<T> content;
+  private String nextCursor;
+
+  /**
+   * Builds a page from rows fetched with a limit of one more than the page size,
+   * so that the extra row tells us whether there is a next page.
+   */
+  public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+    if (rows.size() <= limit) {
+      return new KeysetPage<>(rows, null);
+    }
+    List<T> content = List.copyOf(rows.subList(0, limit));
+    return new KeysetPage<>(content, cursorOf.apply(content.get(limit - 1)));
+  }
+}
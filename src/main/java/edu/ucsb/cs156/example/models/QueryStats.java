@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SQL statements run while handling one request, and the statement that ran
+ * most often (a likely N+1 if it ran many times).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class QueryStats {
+  private long statements;
+  private long elapsedMillis;
+  private String mostRepeatedStatement;
+  private long mostRepeatedCount;
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.Instant;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One statement that took at least the slow-query threshold, with its bind
+ * values (one list per batch entry) and the request and controller method
+ * that ran it; endpoint and handler are null outside a request.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SlowQuery {
+  private Instant at;
+  private long elapsedMillis;
+  private String sql;
+  private List<List<String>> parameters;
+  private String endpoint;
+  private String handler;
+}
@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.repositories;
+
+/**
+ * Repository fragment for entities with assigned ids.
+ *
+ * CrudRepository.save() can't tell a new assigned-id entity from an existing
+ * one, so it always merges (SELECT, then INSERT or UPDATE). insert() always
+ * persists, so a create is a single INSERT and a duplicate key fails with a
+ * DuplicateKeyException instead of overwriting the existing row. Other
+ * constraint violations (NOT NULL, length, foreign keys) surface as the
+ * DataIntegrityViolationException they translate to.
+ */
+public interface InsertableRepository<T> {
+  T insert(T entity);
+}
@@ -0,0 +1,57 @@
+package edu.ucsb.cs156.example.repositories;
+
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.PersistentObjectException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.annotation.Transactional;
+
+public class InsertableRepositoryImpl<T> implements InsertableRepository<T> {
+
+  // unique_violation, for primary keys and unique constraints alike, on both
+  // H2 and Postgres
+  static final String UNIQUE_VIOLATION = "23505";
+
+  @PersistenceContext
+  EntityManager entityManager;
+
+  @Override
+  @Transactional
+  public T insert(T entity) {
+    // An id found in the second-level cache makes Hibernate take the entity
+    // for a detached copy of that row and refuse to persist it; drop the
+    // entry so the database's primary key decides.
+    EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+    Object id = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(entity);
+    entityManagerFactory.getCache().evict(entity.getClass(), id);
+    try {
+      entityManager.persist(entity);
+      // flush here so a duplicate key is reported by this call, not at commit
+      entityManager.flush();
+    } catch (PersistenceException e) {
+      // a concurrent read cached the row again: it exists
+      if (e instanceof PersistentObjectException || e.getCause() instanceof PersistentObjectException) {
+        throw new DuplicateKeyException("%s already exists".formatted(id), e);
+      }
+      if (isUniqueViolation(e)) {
+        throw new DuplicateKeyException(e.getMessage(), e);
+      }
+      throw e;
+    }
+    return entity;
+  }
+
+  static boolean isUniqueViolation(Throwable e) {
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
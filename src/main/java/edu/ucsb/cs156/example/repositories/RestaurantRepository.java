@@ -1,10 +1,46 @@
 package edu.ucsb.cs156.example.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import edu.ucsb.cs156.example.entities.Restaurant;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 @Repository
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+  List<Restaurant> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+  // served from the second-level query cache until the table is next written
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<Restaurant> findAll();
+
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+  @Query("SELECT r FROM restaurant r ORDER BY r.id")
+  Stream<Restaurant> streamAll();
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE restaurant r SET r.name = :#{#restaurant.name}, r.description = :#{#restaurant.description}"
+      + " WHERE r.id = :id")
+  int updateById(@Param("id") long id, @Param("restaurant") Restaurant restaurant);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM restaurant r WHERE r.id = :id")
+  int removeById(@Param("id") long id);
 }
@@ -1,12 +1,55 @@
 package edu.ucsb.cs156.example.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 
 @Repository
 public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
-  Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
-}
\ No newline at end of file
+  List<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
+
+  // dates without a localDateTime sort as :undated, so they page (and order)
+  // the same way on every database
+  @Query("SELECT d FROM ucsbdates d ORDER BY COALESCE(d.localDateTime, :undated) ASC, d.id ASC")
+  List<UCSBDate> findFirstPage(@Param("undated") LocalDateTime undated, Pageable pageable);
+
+  @Query("SELECT d FROM ucsbdates d"
+      + " WHERE COALESCE(d.localDateTime, :undated) > :localDateTime"
+      + " OR (COALESCE(d.localDateTime, :undated) = :localDateTime AND d.id > :id)"
+      + " ORDER BY COALESCE(d.localDateTime, :undated) ASC, d.id ASC")
+  List<UCSBDate> findPageAfter(@Param("undated") LocalDateTime undated,
+      @Param("localDateTime") LocalDateTime localDateTime, @Param("id") long id, Pageable pageable);
+
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+  @Query("SELECT d FROM ucsbdates d ORDER BY d.id")
+  Stream<UCSBDate> streamAll();
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE ucsbdates d SET d.quarterYYYYQ = :#{#ucsbDate.quarterYYYYQ}, d.name = :#{#ucsbDate.name},"
+      + " d.localDateTime = :#{#ucsbDate.localDateTime}"
+      + " WHERE d.id = :id")
+  int updateById(@Param("id") long id, @Param("ucsbDate") UCSBDate ucsbDate);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ucsbdates d WHERE d.id = :id")
+  int removeById(@Param("id") long id);
+}
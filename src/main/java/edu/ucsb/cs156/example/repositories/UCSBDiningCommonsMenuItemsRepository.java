@@ -1,11 +1,41 @@
 package edu.ucsb.cs156.example.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 @Repository
 public interface UCSBDiningCommonsMenuItemsRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long>{
-    
+    List<UCSBDiningCommonsMenuItem> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT i FROM ucsbdiningcommonsmenuitem i ORDER BY i.id")
+    Stream<UCSBDiningCommonsMenuItem> streamAll();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ucsbdiningcommonsmenuitem i SET i.diningCommonsCode = :#{#item.diningCommonsCode}, i.name = :#{#item.name},"
+        + " i.station = :#{#item.station}"
+        + " WHERE i.id = :id")
+    int updateById(@Param("id") long id, @Param("item") UCSBDiningCommonsMenuItem item);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ucsbdiningcommonsmenuitem i WHERE i.id = :id")
+    int removeById(@Param("id") long id);
 }
@@ -1,13 +1,43 @@
 package edu.ucsb.cs156.example.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
-import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 
 @Repository
-public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
-}
\ No newline at end of file
+public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String>, InsertableRepository<UCSBDiningCommons> {
+  List<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(String code, Pageable pageable);
+
+  @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+  @Query("SELECT c FROM ucsbdiningcommons c ORDER BY c.code")
+  Stream<UCSBDiningCommons> streamAll();
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE ucsbdiningcommons c SET c.name = :#{#commons.name}, c.hasSackMeal = :#{#commons.hasSackMeal},"
+      + " c.hasTakeOutMeal = :#{#commons.hasTakeOutMeal}, c.hasDiningCam = :#{#commons.hasDiningCam},"
+      + " c.latitude = :#{#commons.latitude}, c.longitude = :#{#commons.longitude}"
+      + " WHERE c.code = :code")
+  int updateByCode(@Param("code") String code, @Param("commons") UCSBDiningCommons commons);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM ucsbdiningcommons c WHERE c.code = :code")
+  int removeByCode(@Param("code") String code);
+}
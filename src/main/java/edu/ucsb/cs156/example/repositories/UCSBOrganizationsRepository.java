@@ -1,10 +1,46 @@
 package edu.ucsb.cs156.example.repositories;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 @Repository
-public interface UCSBOrganizationsRepository extends CrudRepository<UCSBOrganizations, String> {
-    
-}
\ No newline at end of file
+public interface UCSBOrganizationsRepository extends CrudRepository<UCSBOrganizations, String>, InsertableRepository<UCSBOrganizations> {
+    List<UCSBOrganizations> findByOrgCodeGreaterThanOrderByOrgCodeAsc(String orgCode, Pageable pageable);
+
+    // served from the second-level query cache until the table is next written
+    @Override
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Iterable<UCSBOrganizations> findAll();
+
+    @QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true") })
+    @Query("SELECT o FROM ucsborganizations o ORDER BY o.orgCode")
+    Stream<UCSBOrganizations> streamAll();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ucsborganizations o SET o.orgTranslationShort = :#{#organization.orgTranslationShort},"
+        + " o.orgTranslation = :#{#organization.orgTranslation}, o.inactive = :#{#organization.inactive}"
+        + " WHERE o.orgCode = :orgCode")
+    int updateByOrgCode(@Param("orgCode") String orgCode, @Param("organization") UCSBOrganizations organization);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ucsborganizations o WHERE o.orgCode = :orgCode")
+    int removeByOrgCode(@Param("orgCode") String orgCode);
+}
@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Emails listed in app.admin.emails, as an immutable hash set.
+ *
+ * The users-table admin flag is not cached here: a login loads the user row
+ * once through CurrentUserServiceImpl.loginUser, and SecurityConfig takes
+ * ROLE_ADMIN from that row.
+ */
+@Slf4j
+@Service("adminStatus")
+public class AdminStatusService {
+
+  @Value("${app.admin.emails}")
+  private final List<String> adminEmailList = new ArrayList<String>();
+
+  private Set<String> adminEmails = Set.of();
+
+  @PostConstruct
+  void init() {
+    adminEmails = Set.copyOf(adminEmailList);
+    log.info("adminEmails={}", adminEmails);
+  }
+
+  /**
+   * True if the email is listed in app.admin.emails; never touches the database.
+   */
+  public boolean isAdminEmail(String email) {
+    return adminEmails.contains(email);
+  }
+}
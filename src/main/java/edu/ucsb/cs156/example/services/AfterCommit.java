@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs cache maintenance once the surrounding transaction has committed, so
+ * that a concurrent reader can't reload the old rows between our eviction and
+ * the commit. Outside a transaction the action runs immediately.
+ */
+public final class AfterCommit {
+
+  private AfterCommit() {
+  }
+
+  public static void run(Runnable action) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          action.run();
+        }
+      });
+    } else {
+      action.run();
+    }
+  }
+}
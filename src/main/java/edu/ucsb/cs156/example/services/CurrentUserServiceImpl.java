@@ -5,11 +5,16 @@ import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
 import java.util.Collection;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import javax.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -30,38 +35,74 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  final private List<String> adminEmails = new ArrayList<String>();
+  @Autowired
+  AdminStatusService adminStatusService;
+
+  @Value("${app.currentUser.cache.maximumSize:10000}")
+  private long cacheMaximumSize;
+
+  @Value("${app.currentUser.cache.ttlSeconds:300}")
+  private long cacheTtlSeconds;
+
+  // Resolved users, keyed by email, so that repeated requests from the same
+  // principal (e.g. /api/currentUser on every page load) don't hit the database.
+  private Cache<String, User> userCache;
+
+  @PostConstruct
+  void initUserCache() {
+    userCache = Caffeine.newBuilder()
+        .maximumSize(cacheMaximumSize)
+        .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+        .build();
+  }
 
   public CurrentUser getCurrentUser() {
     CurrentUser cu = CurrentUser.builder()
       .user(this.getUser())
       .roles(this.getRoles())
       .build();
-    log.info("getCurrentUser returns {}",cu);
+    log.debug("getCurrentUser returns {}",cu);
     return cu;
   }
 
-  
+
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
     String email = oAuthUser.getAttribute("email");
-    String googleSub = oAuthUser.getAttribute("sub");
-    String pictureUrl = oAuthUser.getAttribute("picture");
-    String fullName = oAuthUser.getAttribute("name");
-    String givenName = oAuthUser.getAttribute("given_name");
-    String familyName = oAuthUser.getAttribute("family_name");
-    boolean emailVerified = oAuthUser.getAttribute("email_verified");
-    String locale = oAuthUser.getAttribute("locale");
-    String hostedDomain = oAuthUser.getAttribute("hd");
-
-    java.util.Map<java.lang.String,java.lang.Object> attrs = oAuthUser.getAttributes();
-    log.info("attrs={}",attrs);
+    return userCache.get(email, key -> loadOrCreateUser(oAuthUser.getAttributes()));
+  }
+
+  /**
+   * Loads (or creates) the user for an OAuth login from its attributes and
+   * replaces the cached copy, so a changed admin flag or profile takes effect
+   * at the next login. SecurityConfig decides ROLE_ADMIN from the returned
+   * row, so a login reads the users table once. Within an existing session
+   * the cached user can be up to app.currentUser.cache.ttlSeconds old;
+   * app.admin.emails is only read at startup.
+   */
+  public User loginUser(Map<String, Object> attributes) {
+    User u = loadOrCreateUser(attributes);
+    userCache.put(u.getEmail(), u);
+    return u;
+  }
+
+  private User loadOrCreateUser(Map<String, Object> attributes) {
+    String email = (String) attributes.get("email");
+    String googleSub = (String) attributes.get("sub");
+    String pictureUrl = (String) attributes.get("picture");
+    String fullName = (String) attributes.get("name");
+    String givenName = (String) attributes.get("given_name");
+    String familyName = (String) attributes.get("family_name");
+    boolean emailVerified = (Boolean) attributes.get("email_verified");
+    String locale = (String) attributes.get("locale");
+    String hostedDomain = (String) attributes.get("hd");
+
+    log.debug("attrs={}", attributes);
 
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
       User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
+      if (adminStatusService.isAdminEmail(email) && !u.getAdmin()) {
         u.setAdmin(true);
         userRepository.save(u);
       }
@@ -78,12 +119,20 @@ public class CurrentUserServiceImpl extends CurrentUserService {
         .emailVerified(emailVerified)
         .locale(locale)
         .hostedDomain(hostedDomain)
-        .admin(adminEmails.contains(email))
+        .admin(adminStatusService.isAdminEmail(email))
         .build();
     userRepository.save(u);
     return u;
   }
 
+  /**
+   * Drops the cached user for this email; call this whenever a user's
+   * row (e.g. the admin flag) is changed so the next request reloads it.
+   */
+  public void invalidateUser(String email) {
+    userCache.invalidate(email);
+  }
+
   public User getUser() {
     SecurityContext securityContext = SecurityContextHolder.getContext();
     Authentication authentication = securityContext.getAuthentication();
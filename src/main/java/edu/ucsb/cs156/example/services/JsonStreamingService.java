@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Writes a JPA result stream to the response as a JSON array, one entity at a time.
+ *
+ * Each entity is detached as soon as it has been written, so memory use does not
+ * grow with the number of rows. The stream is opened inside its own read-only
+ * transaction because the body is written after the controller method returns,
+ * on another thread; the statements it runs still count towards the request
+ * (see QueryStatsService.counted).
+ */
+@Slf4j
+@Service("jsonStreaming")
+public class JsonStreamingService {
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  QueryStatsService queryStatsService;
+
+  @Value("${app.streaming.flushEvery:500}")
+  private int flushEvery;
+
+  public <T> StreamingResponseBody stream(Supplier<Stream<T>> rows) {
+    return queryStatsService.counted(out -> {
+      TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+      transactionTemplate.setReadOnly(true);
+      transactionTemplate.executeWithoutResult(status -> {
+        try (Stream<T> stream = rows.get();
+            JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+          generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+          generator.writeStartArray();
+          long count = 0;
+          Iterator<T> iterator = stream.iterator();
+          while (iterator.hasNext()) {
+            T row = iterator.next();
+            generator.writeObject(row);
+            entityManager.detach(row);
+            if (++count % flushEvery == 0) {
+              generator.flush();
+            }
+          }
+          generator.writeEndArray();
+          log.debug("streamed {} rows", count);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+    });
+  }
+}
@@ -0,0 +1,212 @@
+package edu.ucsb.cs156.example.services;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Serialized bodies for the whole-table list endpoints.
+ *
+ * The bytes (and, if enabled, a gzipped copy) are kept per table and format
+ * for the table version they were built from, so until the next write a
+ * request is answered without querying or serializing anything. Requests that
+ * arrive while a version is being built wait for it and share the result.
+ *
+ * Besides JSON, any other Jackson format registered as a message converter
+ * (Smile, CBOR) can be chosen with the Accept header.
+ *
+ * Metrics: app.list.responses counts requests per table, format and whether
+ * the cached body was used; app.list.response.bytes records the size of each
+ * body built.
+ */
+@Service("listResponses")
+public class ListResponseService {
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  @Autowired
+  HttpMessageConverters httpMessageConverters;
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  @Value("${app.listResponses.cache.enabled:true}")
+  boolean cacheEnabled = true;
+
+  @Value("${app.listResponses.gzip.enabled:true}")
+  boolean gzipEnabled = true;
+
+  private record Body(byte[] bytes, byte[] gzip) {
+  }
+
+  private record Key(Class<?> table, MediaType format) {
+  }
+
+  private record Entry(String etag, Body body) {
+  }
+
+  // JSON first, so that it is the default
+  private Map<MediaType, ObjectMapper> formats = Map.of();
+
+  private final Map<Key, Entry> cache = new ConcurrentHashMap<>();
+
+  private final SingleFlight<String, Body> flights = new SingleFlight<>();
+
+  @PostConstruct
+  void initFormats() {
+    Map<MediaType, ObjectMapper> found = new LinkedHashMap<>();
+    found.put(MediaType.APPLICATION_JSON, mapper);
+    for (HttpMessageConverter<?> converter : httpMessageConverters) {
+      if (converter instanceof AbstractJackson2HttpMessageConverter jackson) {
+        for (MediaType type : jackson.getSupportedMediaTypes()) {
+          if (!type.isWildcardSubtype()) {
+            found.putIfAbsent(type, jackson.getObjectMapper());
+          }
+        }
+      }
+    }
+    formats = Collections.unmodifiableMap(found);
+  }
+
+  /**
+   * The format to send to a client with this Accept header; JSON unless the
+   * client prefers one of the other formats.
+   */
+  public MediaType format(String accept) {
+    if (accept != null) {
+      List<MediaType> acceptable = MediaType.parseMediaTypes(accept);
+      MediaType.sortBySpecificityAndQuality(acceptable);
+      for (MediaType type : acceptable) {
+        if (type.getQualityValue() == 0) {
+          continue;
+        }
+        for (MediaType format : formats.keySet()) {
+          if (type.includes(format)) {
+            return format;
+          }
+        }
+      }
+    }
+    return MediaType.APPLICATION_JSON;
+  }
+
+  /**
+   * True if the list should be sent gzipped to a client with this
+   * Accept-Encoding: gzip (or x-gzip) is listed with a non-zero q, or it
+   * isn't listed and * is. "gzip;q=0" refuses it.
+   */
+  public boolean gzip(String acceptEncoding) {
+    if (!gzipEnabled || acceptEncoding == null) {
+      return false;
+    }
+    Double gzip = null;
+    Double any = null;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] params = coding.split(";");
+      String name = params[0].trim().toLowerCase(Locale.ROOT);
+      if (name.equals("gzip") || name.equals("x-gzip")) {
+        gzip = quality(params);
+      } else if (name.equals("*")) {
+        any = quality(params);
+      }
+    }
+    double quality = gzip != null ? gzip : any != null ? any : 0;
+    return quality > 0;
+  }
+
+  // the q parameter of one Accept-Encoding entry; 1 if absent, 0 if malformed
+  private static double quality(String[] params) {
+    for (int i = 1; i < params.length; i++) {
+      String param = params[i].trim();
+      if (param.regionMatches(true, 0, "q=", 0, 2)) {
+        try {
+          return Double.parseDouble(param.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+
+  public String etag(Class<?> table, MediaType format, boolean gzip) {
+    String variant = format.equals(MediaType.APPLICATION_JSON) ? "" : "-" + format.getSubtype();
+    return tableVersionService.etag(table, gzip ? variant + "-gzip" : variant);
+  }
+
+  public byte[] list(Class<?> table, Supplier<?> rows, MediaType format, boolean gzip) {
+    String etag = etag(table, format, false);
+    Key key = new Key(table, format);
+    Entry entry = cache.get(key);
+    Body body;
+    boolean hit = entry != null && entry.etag().equals(etag);
+    if (hit) {
+      body = entry.body();
+    } else {
+      body = flights.run(etag, () -> build(table, format, rows.get()));
+      if (cacheEnabled) {
+        cache.put(key, new Entry(etag, body));
+      }
+    }
+    meterRegistry.counter("app.list.responses",
+        "table", table.getSimpleName(), "format", format.getSubtype(), "cache", hit ? "hit" : "miss")
+        .increment();
+    return gzip ? body.gzip() : body.bytes();
+  }
+
+  /**
+   * Drops every cached body; they are rebuilt on the next request.
+   */
+  public void clear() {
+    cache.clear();
+  }
+
+  private Body build(Class<?> table, MediaType format, Object rows) {
+    try {
+      byte[] bytes = formats.get(format).writeValueAsBytes(rows);
+      DistributionSummary.builder("app.list.response.bytes")
+          .baseUnit("bytes")
+          .tag("table", table.getSimpleName())
+          .tag("format", format.getSubtype())
+          .register(meterRegistry)
+          .record(bytes.length);
+      return new Body(bytes, gzipEnabled ? gzip(bytes) : null);
+    } catch (IOException e) {
+      throw new IllegalStateException("Could not serialize list response", e);
+    }
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+}
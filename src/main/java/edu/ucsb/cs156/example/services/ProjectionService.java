@@ -0,0 +1,110 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+
+/**
+ * Sparse fieldsets (?fields=a,b) for the GET endpoints: selects only the
+ * requested columns with a tuple query and returns each row as a map from
+ * field name to value, in the order the fields were asked for.
+ */
+@Service("projections")
+@Transactional(readOnly = true)
+public class ProjectionService {
+
+  @Autowired
+  EntityManager entityManager;
+
+  /**
+   * The requested fields of every row, ordered by id.
+   */
+  public List<Map<String, Object>> findAll(Class<?> entity, List<String> fields) {
+    return query(entity, fields, null);
+  }
+
+  public Map<String, Object> getById(Class<?> entity, Object id, List<String> fields) {
+    List<Map<String, Object>> rows = query(entity, fields, id);
+    if (rows.isEmpty()) {
+      throw new EntityNotFoundException(entity, id);
+    }
+    return rows.get(0);
+  }
+
+  private <T> List<Map<String, Object>> query(Class<T> entity, List<String> fields, Object id) {
+    EntityType<T> type = entityManager.getMetamodel().entity(entity);
+    List<String> names = fieldNames(type, fields);
+    String idName = type.getSingularAttributes().stream()
+        .filter(SingularAttribute::isId)
+        .map(Attribute::getName)
+        .findFirst()
+        .orElseThrow();
+
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Tuple> query = cb.createTupleQuery();
+    Root<T> root = query.from(entity);
+    List<Selection<?>> selections = names.stream()
+        .<Selection<?>>map(name -> root.get(name))
+        .toList();
+    query.multiselect(selections);
+    if (id != null) {
+      query.where(cb.equal(root.get(idName), id));
+    }
+    query.orderBy(cb.asc(root.get(idName)));
+
+    return entityManager.createQuery(query).getResultList().stream()
+        .map(tuple -> row(names, tuple))
+        .toList();
+  }
+
+  private static Map<String, Object> row(List<String> names, Tuple tuple) {
+    Map<String, Object> row = new LinkedHashMap<>();
+    for (int i = 0; i < names.size(); i++) {
+      row.put(names.get(i), tuple.get(i));
+    }
+    return row;
+  }
+
+  /**
+   * Trimmed, de-duplicated field names; each must be a column of the entity.
+   */
+  private static List<String> fieldNames(EntityType<?> type, List<String> fields) {
+    Set<String> known = type.getSingularAttributes().stream()
+        .map(Attribute::getName)
+        .collect(Collectors.toSet());
+    List<String> names = fields.stream()
+        .map(String::trim)
+        .filter(name -> !name.isEmpty())
+        .distinct()
+        .toList();
+    if (names.isEmpty()) {
+      throw new BadRequestException("fields must name at least one field");
+    }
+    for (String name : names) {
+      if (!known.contains(name)) {
+        throw new BadRequestException("Unknown field %s for %s; expected some of %s"
+            .formatted(name, type.getJavaType().getSimpleName(), known.stream().sorted().toList()));
+      }
+    }
+    return names;
+  }
+}
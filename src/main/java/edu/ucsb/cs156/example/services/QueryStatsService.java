@@ -0,0 +1,149 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import edu.ucsb.cs156.example.models.QueryStats;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Counts the SQL statements run on the current thread between start() and
+ * finish(); QueryCountFilter brackets each HTTP request with them, and
+ * DataSourceProxyConfig registers this as the datasource-proxy listener.
+ *
+ * The tally is per thread, so statements outside a request (startup,
+ * scheduled work) and on other threads are not counted, except in a
+ * StreamingResponseBody wrapped with counted(), which carries the request's
+ * tally onto the thread that writes the body. A batch counts as one
+ * statement, since it is one round trip.
+ */
+@Service("queryStats")
+public class QueryStatsService implements QueryExecutionListener {
+
+  @Value("${app.queryCount.budget:10}")
+  long budget = 10;
+
+  @Value("${app.queryCount.repeatThreshold:5}")
+  long repeatThreshold = 5;
+
+  private static class Tally {
+    long statements;
+    long elapsedMillis;
+    final Map<String, Long> repeats = new HashMap<>();
+  }
+
+  private final ThreadLocal<Tally> current = new ThreadLocal<>();
+
+  public void start() {
+    current.set(new Tally());
+  }
+
+  /**
+   * The statements counted since start(), which stops counting.
+   */
+  public QueryStats finish() {
+    return detach().get();
+  }
+
+  /**
+   * Stops counting on this thread, like finish(), but returns the request's
+   * stats as a supplier, so that statements run later by a body from
+   * counted() are included when it is called.
+   */
+  public Supplier<QueryStats> detach() {
+    Tally tally = current.get();
+    current.remove();
+    return () -> stats(tally);
+  }
+
+  /**
+   * The statements counted so far on this thread; zero outside a request.
+   */
+  public QueryStats snapshot() {
+    return stats(current.get());
+  }
+
+  /**
+   * Wraps a response body so the statements it runs, on whichever thread
+   * writes it, count towards the request that created it.
+   */
+  public StreamingResponseBody counted(StreamingResponseBody body) {
+    Tally tally = current.get();
+    if (tally == null) {
+      return body;
+    }
+    return out -> {
+      Tally previous = current.get();
+      current.set(tally);
+      try {
+        body.writeTo(out);
+      } finally {
+        current.set(previous);
+      }
+    };
+  }
+
+  private static QueryStats stats(Tally tally) {
+    if (tally == null) {
+      return new QueryStats(0, 0, null, 0);
+    }
+    // the body may still be counting on another thread
+    synchronized (tally) {
+      Map.Entry<String, Long> top = tally.repeats.entrySet().stream()
+          .max(Map.Entry.comparingByValue())
+          .orElse(null);
+      return QueryStats.builder()
+          .statements(tally.statements)
+          .elapsedMillis(tally.elapsedMillis)
+          .mostRepeatedStatement(top == null ? null : top.getKey())
+          .mostRepeatedCount(top == null ? 0 : top.getValue())
+          .build();
+    }
+  }
+
+  /**
+   * Warnings worth logging for a request with these stats: over the
+   * statement budget, and/or one statement repeated often enough to look
+   * like an N+1 (a query per row of an earlier result).
+   */
+  public List<String> warnings(QueryStats stats) {
+    List<String> warnings = new ArrayList<>();
+    if (stats.getStatements() > budget) {
+      warnings.add("%d SQL statements (%d ms), over the budget of %d"
+          .formatted(stats.getStatements(), stats.getElapsedMillis(), budget));
+    }
+    if (stats.getMostRepeatedCount() >= repeatThreshold) {
+      warnings.add("possible N+1: ran %d times: %s"
+          .formatted(stats.getMostRepeatedCount(), stats.getMostRepeatedStatement()));
+    }
+    return warnings;
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    Tally tally = current.get();
+    if (tally == null) {
+      return;
+    }
+    synchronized (tally) {
+      tally.statements++;
+      tally.elapsedMillis += execInfo.getElapsedTime();
+      for (QueryInfo queryInfo : queryInfoList) {
+        tally.repeats.merge(queryInfo.getQuery(), 1L, Long::sum);
+      }
+    }
+  }
+}
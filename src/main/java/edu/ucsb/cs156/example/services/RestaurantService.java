@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+
+/**
+ * Transaction boundary for the restaurant endpoints: every public method runs
+ * in one transaction (read-only unless it writes), so each request checks out
+ * a single pooled connection.
+ */
+@Service("restaurants")
+@Transactional(readOnly = true)
+public class RestaurantService {
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  public Iterable<Restaurant> findAll() {
+    return restaurantRepository.findAll();
+  }
+
+  public List<Restaurant> findPageAfter(long id, Pageable pageable) {
+    return restaurantRepository.findByIdGreaterThanOrderByIdAsc(id, pageable);
+  }
+
+  /**
+   * Must be consumed inside the caller's transaction (see JsonStreamingService).
+   */
+  public Stream<Restaurant> streamAll() {
+    return restaurantRepository.streamAll();
+  }
+
+  public Restaurant getById(long id) {
+    return restaurantRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+  }
+
+  @Transactional
+  public Restaurant create(Restaurant restaurant) {
+    Restaurant saved = restaurantRepository.save(restaurant);
+    tableVersionService.bump(Restaurant.class);
+    return saved;
+  }
+
+  @Transactional
+  public Restaurant update(long id, Restaurant incoming) {
+    if (restaurantRepository.updateById(id, incoming) == 0) {
+      throw new EntityNotFoundException(Restaurant.class, id);
+    }
+    tableVersionService.bump(Restaurant.class);
+    incoming.setId(id);
+    return incoming;
+  }
+
+  @Transactional
+  public void delete(long id) {
+    if (restaurantRepository.removeById(id) == 0) {
+      throw new EntityNotFoundException(Restaurant.class, id);
+    }
+    tableVersionService.bump(Restaurant.class);
+  }
+}
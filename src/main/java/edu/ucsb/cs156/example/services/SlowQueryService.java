@@ -0,0 +1,121 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.models.SlowQuery;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+/**
+ * Keeps the most recent statements that took at least
+ * app.slowQueries.thresholdMillis, with their bind values and the controller
+ * method that ran them, in a ring buffer of app.slowQueries.capacity entries.
+ * Registered as a datasource-proxy listener by DataSourceProxyConfig.
+ *
+ * Each slow statement is also logged at WARN, without its bind values.
+ */
+@Slf4j
+@Service("slowQueries")
+public class SlowQueryService implements QueryExecutionListener {
+
+  static final int MAX_VALUE_LENGTH = 100;
+
+  @Value("${app.slowQueries.thresholdMillis:200}")
+  long thresholdMillis = 200;
+
+  @Value("${app.slowQueries.capacity:100}")
+  int capacity = 100;
+
+  private final Deque<SlowQuery> recent = new ArrayDeque<>();
+
+  /**
+   * The recorded slow statements, newest first.
+   */
+  public synchronized List<SlowQuery> recent() {
+    return List.copyOf(recent);
+  }
+
+  public synchronized void clear() {
+    recent.clear();
+  }
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    if (execInfo.getElapsedTime() < thresholdMillis) {
+      return;
+    }
+    HttpServletRequest request = currentRequest();
+    String endpoint = request == null ? null : "%s %s".formatted(request.getMethod(), request.getRequestURI());
+    String handler = request == null ? null : handlerOf(request);
+    for (QueryInfo queryInfo : queryInfoList) {
+      SlowQuery slowQuery = SlowQuery.builder()
+          .at(Instant.now())
+          .elapsedMillis(execInfo.getElapsedTime())
+          .sql(queryInfo.getQuery())
+          .parameters(queryInfo.getParametersList().stream().map(SlowQueryService::values).toList())
+          .endpoint(endpoint)
+          .handler(handler)
+          .build();
+      log.warn("Slow query ({} ms) in {}: {}", slowQuery.getElapsedMillis(), handler, slowQuery.getSql());
+      add(slowQuery);
+    }
+  }
+
+  private synchronized void add(SlowQuery slowQuery) {
+    recent.addFirst(slowQuery);
+    while (recent.size() > capacity) {
+      recent.removeLast();
+    }
+  }
+
+  private static HttpServletRequest currentRequest() {
+    return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+        ? attributes.getRequest()
+        : null;
+  }
+
+  private static String handlerOf(HttpServletRequest request) {
+    return request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method
+        ? "%s.%s".formatted(method.getBeanType().getSimpleName(), method.getMethod().getName())
+        : null;
+  }
+
+  /**
+   * Bind values of one execution in parameter order, long values cut short.
+   */
+  private static List<String> values(List<ParameterSetOperation> operations) {
+    List<ParameterSetOperation> sorted = new ArrayList<>(operations);
+    // positional parameters are keyed by index; named ones keep their order
+    sorted.sort(Comparator.comparingInt(operation -> operation.getArgs()[0] instanceof Integer index ? index : 0));
+    return sorted.stream().map(SlowQueryService::value).toList();
+  }
+
+  private static String value(ParameterSetOperation operation) {
+    if (ParameterSetOperation.isSetNullParameterOperation(operation)) {
+      return "NULL";
+    }
+    String value = String.valueOf(operation.getArgs()[1]);
+    return value.length() > MAX_VALUE_LENGTH ? value.substring(0, MAX_VALUE_LENGTH) + "..." : value;
+  }
+}
@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-memory version counter per entity table, used to answer conditional GETs
+ * on the list endpoints without touching the database.
+ *
+ * Every write through a service bumps its table's version once the transaction
+ * commits; the ETag combines that version with the time this instance started,
+ * so tags handed out before a restart never match afterwards.
+ *
+ * Committed writes are also counted per table (app.table.writes), for
+ * capacity planning.
+ */
+@Service("tableVersions")
+public class TableVersionService {
+
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+  private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+  private AtomicLong counter(Class<?> table) {
+    return versions.computeIfAbsent(table.getSimpleName(), key -> new AtomicLong());
+  }
+
+  public long version(Class<?> table) {
+    return counter(table).get();
+  }
+
+  /**
+   * Strong ETag (including the quotes) for the current contents of the table.
+   */
+  public String etag(Class<?> table) {
+    return etag(table, "");
+  }
+
+  /**
+   * ETag for another representation of the same contents, e.g. a gzipped
+   * body; the variant is appended to the tag so the two never match.
+   */
+  public String etag(Class<?> table, String variant) {
+    return "\"%s-%s-%d%s\"".formatted(table.getSimpleName(), epoch, version(table), variant);
+  }
+
+  /**
+   * Marks the table as changed. Deferred until commit so that a reader can't
+   * pick up the new tag while still seeing the old rows.
+   */
+  public void bump(Class<?> table) {
+    AfterCommit.run(() -> {
+      counter(table).incrementAndGet();
+      meterRegistry.counter("app.table.writes", "table", table.getSimpleName()).increment();
+    });
+  }
+}
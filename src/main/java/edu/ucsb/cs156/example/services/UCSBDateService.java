@@ -0,0 +1,154 @@
+package edu.ucsb.cs156.example.services;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+@Service("ucsbDates")
+@Transactional(readOnly = true)
+public class UCSBDateService {
+
+  /**
+   * Where dates without a localDateTime sort when paging: before any date
+   * the app stores.
+   */
+  public static final LocalDateTime UNDATED = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  @Value("${app.ucsbDates.quarterCache.maximumSize:200}")
+  long quarterCacheMaximumSize = 200;
+
+  @Value("${app.ucsbDates.quarterCache.ttlSeconds:3600}")
+  long quarterCacheTtlSeconds = 3600;
+
+  // Dates for each quarter, keyed by quarterYYYYQ; writes evict only the
+  // quarters they touch.
+  private Cache<String, List<UCSBDate>> quarterCache;
+
+  // Moved forward by every committed write, before it evicts. A quarter load
+  // that sees it move may have read the rows from before the write, after
+  // the eviction had already run, so it drops what it cached.
+  private final AtomicLong generation = new AtomicLong();
+
+  @PostConstruct
+  void initQuarterCache() {
+    quarterCache = Caffeine.newBuilder()
+        .maximumSize(quarterCacheMaximumSize)
+        .expireAfterWrite(Duration.ofSeconds(quarterCacheTtlSeconds))
+        .build();
+  }
+
+  public Iterable<UCSBDate> findAll() {
+    return ucsbDateRepository.findAll();
+  }
+
+  public List<UCSBDate> findFirstPage(Pageable pageable) {
+    return ucsbDateRepository.findFirstPage(UNDATED, pageable);
+  }
+
+  public List<UCSBDate> findPageAfter(LocalDateTime localDateTime, long id, Pageable pageable) {
+    return ucsbDateRepository.findPageAfter(UNDATED, localDateTime, id, pageable);
+  }
+
+  /**
+   * The cursor that findPageAfter continues from, past this date.
+   */
+  public String cursorOf(UCSBDate ucsbDate) {
+    return "%s,%d".formatted(Objects.requireNonNullElse(ucsbDate.getLocalDateTime(), UNDATED), ucsbDate.getId());
+  }
+
+  /**
+   * SUPPORTS rather than a read-only transaction, so a cache hit doesn't
+   * check out a connection.
+   */
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public List<UCSBDate> findByQuarter(String quarterYYYYQ) {
+    List<UCSBDate> cached = quarterCache.getIfPresent(quarterYYYYQ);
+    if (cached != null) {
+      return cached;
+    }
+    long started = generation.get();
+    List<UCSBDate> loaded = List.copyOf(ucsbDateRepository.findAllByQuarterYYYYQ(quarterYYYYQ));
+    quarterCache.put(quarterYYYYQ, loaded);
+    if (generation.get() != started) {
+      quarterCache.asMap().remove(quarterYYYYQ, loaded);
+    }
+    return loaded;
+  }
+
+  public Stream<UCSBDate> streamAll() {
+    return ucsbDateRepository.streamAll();
+  }
+
+  public UCSBDate getById(long id) {
+    return ucsbDateRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+  }
+
+  @Transactional
+  public UCSBDate create(UCSBDate ucsbDate) {
+    UCSBDate saved = ucsbDateRepository.save(ucsbDate);
+    evictAfterCommit(() -> quarterCache.invalidate(saved.getQuarterYYYYQ()));
+    tableVersionService.bump(UCSBDate.class);
+    return saved;
+  }
+
+  @Transactional
+  public UCSBDate update(long id, UCSBDate incoming) {
+    if (ucsbDateRepository.updateById(id, incoming) == 0) {
+      throw new EntityNotFoundException(UCSBDate.class, id);
+    }
+    // the date may have moved out of the quarter(s) it was cached under
+    evictAfterCommit(() -> {
+      quarterCache.invalidate(incoming.getQuarterYYYYQ());
+      evictQuartersContaining(id);
+    });
+    tableVersionService.bump(UCSBDate.class);
+    incoming.setId(id);
+    return incoming;
+  }
+
+  @Transactional
+  public void delete(long id) {
+    if (ucsbDateRepository.removeById(id) == 0) {
+      throw new EntityNotFoundException(UCSBDate.class, id);
+    }
+    evictAfterCommit(() -> evictQuartersContaining(id));
+    tableVersionService.bump(UCSBDate.class);
+  }
+
+  private void evictAfterCommit(Runnable evict) {
+    AfterCommit.run(() -> {
+      generation.incrementAndGet();
+      evict.run();
+    });
+  }
+
+  private void evictQuartersContaining(long id) {
+    quarterCache.asMap().values().removeIf(dates -> dates.stream().anyMatch(d -> d.getId() == id));
+  }
+}
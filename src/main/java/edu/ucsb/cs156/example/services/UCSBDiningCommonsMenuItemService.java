@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
+
+@Service("ucsbDiningCommonsMenuItems")
+@Transactional(readOnly = true)
+public class UCSBDiningCommonsMenuItemService {
+
+  @Autowired
+  UCSBDiningCommonsMenuItemsRepository ucsbDiningCommonsMenuItemsRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  public Iterable<UCSBDiningCommonsMenuItem> findAll() {
+    return ucsbDiningCommonsMenuItemsRepository.findAll();
+  }
+
+  public List<UCSBDiningCommonsMenuItem> findPageAfter(long id, Pageable pageable) {
+    return ucsbDiningCommonsMenuItemsRepository.findByIdGreaterThanOrderByIdAsc(id, pageable);
+  }
+
+  public Stream<UCSBDiningCommonsMenuItem> streamAll() {
+    return ucsbDiningCommonsMenuItemsRepository.streamAll();
+  }
+
+  public UCSBDiningCommonsMenuItem getById(long id) {
+    return ucsbDiningCommonsMenuItemsRepository.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
+  }
+
+  @Transactional
+  public UCSBDiningCommonsMenuItem create(UCSBDiningCommonsMenuItem item) {
+    UCSBDiningCommonsMenuItem saved = ucsbDiningCommonsMenuItemsRepository.save(item);
+    tableVersionService.bump(UCSBDiningCommonsMenuItem.class);
+    return saved;
+  }
+
+  /**
+   * Inserts all the items in one transaction; ids are always assigned by the
+   * sequence, so every row is a plain batched INSERT.
+   */
+  @Transactional
+  public int createAll(List<UCSBDiningCommonsMenuItem> items) {
+    items.forEach(item -> item.setId(0));
+    ucsbDiningCommonsMenuItemsRepository.saveAll(items);
+    tableVersionService.bump(UCSBDiningCommonsMenuItem.class);
+    return items.size();
+  }
+
+  @Transactional
+  public UCSBDiningCommonsMenuItem update(long id, UCSBDiningCommonsMenuItem incoming) {
+    if (ucsbDiningCommonsMenuItemsRepository.updateById(id, incoming) == 0) {
+      throw new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id);
+    }
+    tableVersionService.bump(UCSBDiningCommonsMenuItem.class);
+    incoming.setId(id);
+    return incoming;
+  }
+
+  @Transactional
+  public void delete(long id) {
+    if (ucsbDiningCommonsMenuItemsRepository.removeById(id) == 0) {
+      throw new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id);
+    }
+    tableVersionService.bump(UCSBDiningCommonsMenuItem.class);
+  }
+}
@@ -0,0 +1,179 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.errors.EntityAlreadyExistsException;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.CacheStats;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dining commons are a tiny reference table, so /all and getById are served
+ * from an immutable in-memory snapshot of the whole table, loaded at startup
+ * (or on first use after {@link #invalidate()}). Writes go to the database
+ * and, once committed, swap in a modified copy of the snapshot.
+ */
+@Slf4j
+@Service("ucsbDiningCommons")
+@Transactional(readOnly = true)
+public class UCSBDiningCommonsService {
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  /**
+   * The snapshot (commons ordered by code, null until loaded) and a
+   * generation that every invalidation and committed write moves forward. A
+   * load only installs its result if the generation it started from is still
+   * current, so a read that raced a write or invalidate() can't put stale
+   * rows back.
+   */
+  private record Snapshot(long generation, Map<String, UCSBDiningCommons> commons) {
+  }
+
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(0, null));
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  // a warm-up, not a read, so it doesn't count as a miss
+  @EventListener(ApplicationReadyEvent.class)
+  public void preload() {
+    install(snapshot.get());
+  }
+
+  /**
+   * Drops the snapshot; the next read reloads it from the database.
+   */
+  public void invalidate() {
+    snapshot.updateAndGet(current -> new Snapshot(current.generation() + 1, null));
+  }
+
+  public CacheStats stats() {
+    Map<String, UCSBDiningCommons> current = snapshot.get().commons();
+    return CacheStats.builder()
+        .name("ucsbDiningCommons")
+        .hits(hits.sum())
+        .misses(misses.sum())
+        .size(current == null ? 0 : current.size())
+        .build();
+  }
+
+  private Map<String, UCSBDiningCommons> load() {
+    Map<String, UCSBDiningCommons> commons = new TreeMap<>();
+    ucsbDiningCommonsRepository.findAll().forEach(c -> commons.put(c.getCode(), c));
+    log.debug("loaded {} dining commons", commons.size());
+    return Collections.unmodifiableMap(commons);
+  }
+
+  private Map<String, UCSBDiningCommons> snapshot() {
+    Snapshot current = snapshot.get();
+    if (current.commons() != null) {
+      hits.increment();
+      return current.commons();
+    }
+    misses.increment();
+    return install(current);
+  }
+
+  private Map<String, UCSBDiningCommons> install(Snapshot current) {
+    Map<String, UCSBDiningCommons> loaded = load();
+    snapshot.compareAndSet(current, new Snapshot(current.generation(), loaded));
+    return loaded;
+  }
+
+  /**
+   * Copy-on-write: applies the change to a copy of the current snapshot once
+   * the transaction commits. An unloaded snapshot stays unloaded, but its
+   * generation still moves on so that a load already in flight is discarded.
+   */
+  private void changeSnapshotAfterCommit(Consumer<Map<String, UCSBDiningCommons>> change) {
+    AfterCommit.run(() -> snapshot.updateAndGet(current -> {
+      long generation = current.generation() + 1;
+      if (current.commons() == null) {
+        return new Snapshot(generation, null);
+      }
+      Map<String, UCSBDiningCommons> copy = new TreeMap<>(current.commons());
+      change.accept(copy);
+      return new Snapshot(generation, Collections.unmodifiableMap(copy));
+    }));
+  }
+
+  // SUPPORTS: served from memory, so don't open a transaction for it
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public Collection<UCSBDiningCommons> findAll() {
+    return snapshot().values();
+  }
+
+  public List<UCSBDiningCommons> findPageAfter(String code, Pageable pageable) {
+    return ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(code, pageable);
+  }
+
+  public Stream<UCSBDiningCommons> streamAll() {
+    return ucsbDiningCommonsRepository.streamAll();
+  }
+
+  @Transactional(propagation = Propagation.SUPPORTS)
+  public UCSBDiningCommons getById(String code) {
+    UCSBDiningCommons commons = snapshot().get(code);
+    if (commons == null) {
+      throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+    }
+    return commons;
+  }
+
+  @Transactional
+  public UCSBDiningCommons create(UCSBDiningCommons commons) {
+    UCSBDiningCommons saved;
+    try {
+      saved = ucsbDiningCommonsRepository.insert(commons);
+    } catch (DuplicateKeyException e) {
+      throw new EntityAlreadyExistsException(UCSBDiningCommons.class, commons.getCode());
+    }
+    changeSnapshotAfterCommit(m -> m.put(saved.getCode(), saved));
+    tableVersionService.bump(UCSBDiningCommons.class);
+    return saved;
+  }
+
+  @Transactional
+  public UCSBDiningCommons update(String code, UCSBDiningCommons incoming) {
+    if (ucsbDiningCommonsRepository.updateByCode(code, incoming) == 0) {
+      throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+    }
+    incoming.setCode(code);
+    changeSnapshotAfterCommit(m -> m.put(code, incoming));
+    tableVersionService.bump(UCSBDiningCommons.class);
+    return incoming;
+  }
+
+  @Transactional
+  public void delete(String code) {
+    if (ucsbDiningCommonsRepository.removeByCode(code) == 0) {
+      throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+    }
+    changeSnapshotAfterCommit(m -> m.remove(code));
+    tableVersionService.bump(UCSBDiningCommons.class);
+  }
+}
@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+import edu.ucsb.cs156.example.errors.EntityAlreadyExistsException;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
+
+@Service("ucsbOrganizations")
+@Transactional(readOnly = true)
+public class UCSBOrganizationsService {
+
+  @Autowired
+  UCSBOrganizationsRepository ucsbOrganizationsRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  public Iterable<UCSBOrganizations> findAll() {
+    return ucsbOrganizationsRepository.findAll();
+  }
+
+  public List<UCSBOrganizations> findPageAfter(String orgCode, Pageable pageable) {
+    return ucsbOrganizationsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(orgCode, pageable);
+  }
+
+  public Stream<UCSBOrganizations> streamAll() {
+    return ucsbOrganizationsRepository.streamAll();
+  }
+
+  public UCSBOrganizations getById(String orgCode) {
+    return ucsbOrganizationsRepository.findById(orgCode)
+        .orElseThrow(() -> new EntityNotFoundException(UCSBOrganizations.class, orgCode));
+  }
+
+  @Transactional
+  public UCSBOrganizations create(UCSBOrganizations organization) {
+    UCSBOrganizations saved;
+    try {
+      saved = ucsbOrganizationsRepository.insert(organization);
+    } catch (DuplicateKeyException e) {
+      throw new EntityAlreadyExistsException(UCSBOrganizations.class, organization.getOrgCode());
+    }
+    tableVersionService.bump(UCSBOrganizations.class);
+    return saved;
+  }
+
+  @Transactional
+  public UCSBOrganizations update(String orgCode, UCSBOrganizations incoming) {
+    if (ucsbOrganizationsRepository.updateByOrgCode(orgCode, incoming) == 0) {
+      throw new EntityNotFoundException(UCSBOrganizations.class, orgCode);
+    }
+    tableVersionService.bump(UCSBOrganizations.class);
+    incoming.setOrgCode(orgCode);
+    return incoming;
+  }
+
+  @Transactional
+  public void delete(String orgCode) {
+    if (ucsbOrganizationsRepository.removeByOrgCode(orgCode) == 0) {
+      throw new EntityNotFoundException(UCSBOrganizations.class, orgCode);
+    }
+    tableVersionService.bump(UCSBOrganizations.class);
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+
+/**
+ * Keyset pages of users for the admin listing, sorted by one of the indexed
+ * columns and optionally narrowed to users whose email or full name starts
+ * with a prefix (case-insensitive).
+ *
+ * Sorting by id uses the id as the cursor; sorting by email or fullName uses
+ * "value,id", with the id breaking ties. Email is set on every login, but a
+ * Google profile need not have a name, so a null fullName sorts (and appears
+ * in cursors) as the empty string.
+ */
+@Service("userSearch")
+@Transactional(readOnly = true)
+public class UserSearchService {
+
+  public static final List<String> SORTS = List.of("id", "email", "fullName");
+
+  @Autowired
+  EntityManager entityManager;
+
+  public List<User> findPage(String sort, String prefix, String after, Pageable pageable) {
+    if (!SORTS.contains(sort)) {
+      throw new BadRequestException("sort must be one of %s".formatted(SORTS));
+    }
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<User> query = cb.createQuery(User.class);
+    Root<User> user = query.from(User.class);
+    Path<Long> id = user.get("id");
+    Expression<String> key = sort.equals("fullName") ? cb.coalesce(user.get("fullName"), "") : user.get(sort);
+
+    List<Predicate> where = new ArrayList<>();
+    if (prefix != null && !prefix.isBlank()) {
+      String pattern = escapeLike(prefix.trim().toLowerCase(Locale.ROOT)) + "%";
+      where.add(cb.or(
+          cb.like(cb.lower(user.get("email")), pattern, '\\'),
+          cb.like(cb.lower(user.get("fullName")), pattern, '\\')));
+    }
+    if (after != null) {
+      where.add(sort.equals("id") ? cb.greaterThan(id, parseId(after, after)) : after(cb, key, id, after));
+    }
+    query.where(where.toArray(Predicate[]::new));
+    query.orderBy(sort.equals("id") ? List.of(cb.asc(id)) : List.of(cb.asc(key), cb.asc(id)));
+
+    return entityManager.createQuery(query)
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
+  }
+
+  /**
+   * The cursor that findPage takes as after= to continue past this user.
+   */
+  public String cursorOf(String sort, User user) {
+    return switch (sort) {
+      case "email" -> "%s,%d".formatted(user.getEmail(), user.getId());
+      case "fullName" -> "%s,%d".formatted(Objects.toString(user.getFullName(), ""), user.getId());
+      default -> Long.toString(user.getId());
+    };
+  }
+
+  private static Predicate after(CriteriaBuilder cb, Expression<String> key, Path<Long> id, String after) {
+    int comma = after.lastIndexOf(',');
+    if (comma < 0) {
+      throw new BadRequestException("Invalid cursor: %s".formatted(after));
+    }
+    String value = after.substring(0, comma);
+    long afterId = parseId(after.substring(comma + 1), after);
+    return cb.or(
+        cb.greaterThan(key, value),
+        cb.and(cb.equal(key, value), cb.greaterThan(id, afterId)));
+  }
+
+  private static long parseId(String id, String cursor) {
+    try {
+      return Long.parseLong(id);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException("Invalid cursor: %s".formatted(cursor));
+    }
+  }
+
+  private static String escapeLike(String prefix) {
+    return prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
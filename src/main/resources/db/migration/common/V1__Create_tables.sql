@@ -0,0 +1,49 @@
+CREATE TABLE IF NOT EXISTS users (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  email VARCHAR(255),
+  google_sub VARCHAR(255),
+  picture_url VARCHAR(255),
+  full_name VARCHAR(255),
+  given_name VARCHAR(255),
+  family_name VARCHAR(255),
+  email_verified BOOLEAN NOT NULL,
+  locale VARCHAR(255),
+  hosted_domain VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS restaurant (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  name VARCHAR(255),
+  description VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS ucsbdates (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  quarteryyyyq VARCHAR(255),
+  name VARCHAR(255),
+  local_date_time TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS ucsbdiningcommons (
+  code VARCHAR(255) PRIMARY KEY,
+  name VARCHAR(255),
+  has_sack_meal BOOLEAN NOT NULL,
+  has_take_out_meal BOOLEAN NOT NULL,
+  has_dining_cam BOOLEAN NOT NULL,
+  latitude DOUBLE PRECISION,
+  longitude DOUBLE PRECISION
+);
+
+CREATE TABLE IF NOT EXISTS ucsbdiningcommonsmenuitem (
+  id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  dining_commons_code VARCHAR(255),
+  name VARCHAR(255),
+  station VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS ucsborganizations (
+  org_code VARCHAR(255) PRIMARY KEY,
+  org_translation_short VARCHAR(255),
+  org_translation VARCHAR(255),
+  inactive BOOLEAN NOT NULL
+);
@@ -0,0 +1,9 @@
+-- users.email: findByEmail runs on every login
+ALTER TABLE users ADD CONSTRAINT users_email_unique UNIQUE (email);
+
+-- ucsbdates.quarterYYYYQ: findAllByQuarterYYYYQ
+CREATE INDEX IF NOT EXISTS ucsbdates_quarteryyyyq_idx ON ucsbdates (quarteryyyyq);
+
+-- menu items are looked up by dining commons, then station
+CREATE INDEX IF NOT EXISTS ucsbdiningcommonsmenuitem_commons_station_idx
+  ON ucsbdiningcommonsmenuitem (dining_commons_code, station);
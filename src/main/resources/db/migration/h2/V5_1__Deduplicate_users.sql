@@ -0,0 +1,11 @@
+-- V6 adds a unique constraint on users.email, which fails on databases that
+-- were baselined with several rows for one email (two first logins racing in
+-- the old find-or-create). Keep the oldest row per email, marked admin if
+-- any of its copies was, and drop the rest.
+UPDATE users SET admin = TRUE
+  WHERE id IN (SELECT MIN(id) FROM users WHERE email IS NOT NULL
+               GROUP BY email HAVING COUNT(*) > 1 AND MAX(CASE WHEN admin THEN 1 ELSE 0 END) = 1);
+
+DELETE FROM users
+  WHERE email IS NOT NULL
+    AND id NOT IN (SELECT MIN(id) FROM users WHERE email IS NOT NULL GROUP BY email);
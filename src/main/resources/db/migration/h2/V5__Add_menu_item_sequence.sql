@@ -0,0 +1,5 @@
+CREATE SEQUENCE IF NOT EXISTS ucsbdiningcommonsmenuitem_seq START WITH 1 INCREMENT BY 50;
+-- Hibernate's pooled optimizer hands out the 50 ids up to each value it
+-- draws, so the next value must be at least max(id) + 50
+ALTER SEQUENCE ucsbdiningcommonsmenuitem_seq
+  RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM ucsbdiningcommonsmenuitem);
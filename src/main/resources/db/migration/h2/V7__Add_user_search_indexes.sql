@@ -0,0 +1,2 @@
+-- admin users listing: sorted by full name (email already has a unique index)
+CREATE INDEX IF NOT EXISTS users_full_name_id_idx ON users (full_name, id);
@@ -0,0 +1,12 @@
+-- V6 adds a unique constraint on users.email, which fails on databases that
+-- were baselined with several rows for one email (two first logins racing in
+-- the old find-or-create). Keep the oldest row per email, marked admin if
+-- any of its copies was, and drop the rest.
+UPDATE users kept SET admin = TRUE
+  FROM users copy
+  WHERE copy.email = kept.email AND copy.id > kept.id AND copy.admin
+    AND NOT EXISTS (SELECT 1 FROM users older WHERE older.email = kept.email AND older.id < kept.id);
+
+DELETE FROM users copy
+  USING users kept
+  WHERE copy.email = kept.email AND copy.id > kept.id;
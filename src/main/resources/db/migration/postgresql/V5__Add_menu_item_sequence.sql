@@ -0,0 +1,2 @@
+CREATE SEQUENCE IF NOT EXISTS ucsbdiningcommonsmenuitem_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('ucsbdiningcommonsmenuitem_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM ucsbdiningcommonsmenuitem));
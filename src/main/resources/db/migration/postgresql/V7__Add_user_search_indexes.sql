@@ -0,0 +1,7 @@
+-- admin users listing: sorted by full name (email already has a unique index)
+CREATE INDEX IF NOT EXISTS users_full_name_id_idx ON users (full_name, id);
+
+-- prefix search: lower(email) LIKE 'abc%' and lower(full_name) LIKE 'abc%';
+-- text_pattern_ops so LIKE can use the index whatever the database collation
+CREATE INDEX IF NOT EXISTS users_lower_email_pattern_idx ON users (lower(email) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_lower_full_name_pattern_idx ON users (lower(full_name) text_pattern_ops);
@@ -0,0 +1,4 @@
+-- the admin users listing sorts by coalesce(full_name, '') so that users
+-- without a name page like everyone else; index that expression instead
+DROP INDEX IF EXISTS users_full_name_id_idx;
+CREATE INDEX IF NOT EXISTS users_coalesced_full_name_id_idx ON users ((coalesce(full_name, '')), id);
@@ -8,8 +8,10 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import edu.ucsb.cs156.example.config.JacksonDataFormatsConfig;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.ListResponseService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import org.springframework.test.web.servlet.MvcResult;
 
@@ -17,7 +19,8 @@ import java.io.UnsupportedEncodingException;
 import java.util.Map;
 
 @ActiveProfiles("test")
-@Import(TestConfig.class)
+// these need the Jackson beans that only web slices have
+@Import({ TestConfig.class, JacksonDataFormatsConfig.class, ListResponseService.class })
 public abstract class ControllerTestCase {
   @Autowired
   public CurrentUserService currentUserService;
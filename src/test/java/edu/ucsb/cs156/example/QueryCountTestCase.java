@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import edu.ucsb.cs156.example.config.DataSourceProxyConfig;
+import edu.ucsb.cs156.example.config.QueryCountFilter;
+import edu.ucsb.cs156.example.services.QueryStatsService;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+
+/**
+ * Controller tests against a real (embedded) database, with the statements
+ * each request runs counted by QueryCountFilter, e.g.
+ *
+ *   mockMvc.perform(get("/api/restaurants/all")).andExpect(queryCount(1));
+ */
+@AutoConfigureDataJpa
+@AutoConfigureTestDatabase
+@Import({ DataSourceProxyConfig.class, QueryStatsService.class, SlowQueryService.class })
+@TestPropertySource(properties = { "app.queryCount.headers=true" })
+public abstract class QueryCountTestCase extends ControllerTestCase {
+
+  protected static ResultMatcher queryCount(long expected) {
+    return header().string(QueryCountFilter.COUNT_HEADER, Long.toString(expected));
+  }
+
+  protected static long queryCount(MvcResult result) {
+    return Long.parseLong(result.getResponse().getHeader(QueryCountFilter.COUNT_HEADER));
+  }
+}
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.stream.IntStream;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import edu.ucsb.cs156.example.controllers.FrontendProxyController;
+import edu.ucsb.cs156.example.controllers.RestaurantsController;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoggingAspectTests {
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  LoggingAspect loggingAspect = new LoggingAspect();
+
+  @BeforeEach
+  void setUp() {
+    loggingAspect.meterRegistry = meterRegistry;
+  }
+
+  private static ProceedingJoinPoint joinPoint(Class<?> controller, String method, Object result) throws Throwable {
+    Signature signature = mock(Signature.class);
+    when(signature.getDeclaringType()).thenReturn(controller);
+    when(signature.getDeclaringTypeName()).thenReturn(controller.getName());
+    when(signature.getName()).thenReturn(method);
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(joinPoint.proceed()).thenReturn(result);
+    return joinPoint;
+  }
+
+  private static long sampledOf(LoggingAspect loggingAspect, int calls) {
+    return IntStream.range(0, calls).filter(i -> loggingAspect.sampled()).count();
+  }
+
+  @Test
+  void sample_rate_bounds_are_never_and_always() {
+    loggingAspect.sampleRate = 0;
+    assertEquals(0, sampledOf(loggingAspect, 1000));
+
+    loggingAspect.sampleRate = 1;
+    assertEquals(1000, sampledOf(loggingAspect, 1000));
+  }
+
+  @Test
+  void sample_rate_picks_roughly_that_share_of_requests() {
+    loggingAspect.sampleRate = 0.25;
+    long sampled = sampledOf(loggingAspect, 10_000);
+    assertTrue(sampled > 2_000 && sampled < 3_000, "sampled " + sampled);
+  }
+
+  @Test
+  void stoplisted_controllers_are_not_timed() throws Throwable {
+    Object result = ResponseEntity.ok().build();
+    ProceedingJoinPoint joinPoint = joinPoint(FrontendProxyController.class, "proxy", result);
+
+    assertSame(result, loggingAspect.timeControllers(joinPoint));
+    assertTrue(meterRegistry.find(LoggingAspect.TIMER).timers().isEmpty());
+    assertTrue(loggingAspect.timers.isEmpty());
+  }
+
+  @Test
+  void each_method_status_and_exception_gets_one_timer() throws Throwable {
+    ProceedingJoinPoint ok = joinPoint(RestaurantsController.class, "allRestaurants", ResponseEntity.ok().build());
+    ProceedingJoinPoint failing = joinPoint(RestaurantsController.class, "allRestaurants", null);
+    when(failing.proceed()).thenThrow(new IllegalStateException("boom"));
+
+    loggingAspect.timeControllers(ok);
+    loggingAspect.timeControllers(ok);
+    assertThrows(IllegalStateException.class, () -> loggingAspect.timeControllers(failing));
+
+    assertEquals(2, loggingAspect.timers.size());
+    assertEquals(2, meterRegistry.find(LoggingAspect.TIMER).timers().size());
+    Timer timer = meterRegistry.get(LoggingAspect.TIMER)
+        .tags("controller", "RestaurantsController", "method", "allRestaurants", "status", "200", "exception", "none")
+        .timer();
+    assertEquals(2, timer.count());
+    assertFalse(meterRegistry.get(LoggingAspect.TIMER)
+        .tags("status", "error", "exception", "IllegalStateException").timers().isEmpty());
+  }
+}
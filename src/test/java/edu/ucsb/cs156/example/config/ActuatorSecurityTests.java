@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * The metrics and prometheus actuator endpoints are for admins only; this
+ * needs the whole application context, since @WebMvcTest leaves actuator out,
+ * and @AutoConfigureMetrics so that the prometheus registry is there at all.
+ */
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@AutoConfigureTestDatabase
+class ActuatorSecurityTests {
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @Test
+  void anonymous_callers_must_authenticate() throws Exception {
+    mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isUnauthorized());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  void regular_users_are_forbidden() throws Exception {
+    mockMvc.perform(get("/actuator/metrics")).andExpect(status().isForbidden());
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  void admins_can_read_metrics() throws Exception {
+    mockMvc.perform(get("/actuator/metrics")).andExpect(status().isOk());
+    mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isOk());
+  }
+
+  @Test
+  void other_anonymous_requests_still_get_403() throws Exception {
+    mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isForbidden());
+  }
+}
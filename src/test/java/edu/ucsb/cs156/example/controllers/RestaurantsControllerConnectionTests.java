@@ -0,0 +1,141 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.QueryCountTestCase;
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.RestaurantService;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the restaurant endpoints against a real (embedded) database and checks
+ * that each request checks out exactly one connection, i.e. that the service
+ * layer wraps the whole request in a single transaction, and how many SQL
+ * statements it runs.
+ */
+@WebMvcTest(controllers = RestaurantsController.class)
+@Import({ RestaurantService.class, ProjectionService.class, RestaurantsControllerConnectionTests.CountingDataSourceConfig.class })
+public class RestaurantsControllerConnectionTests extends QueryCountTestCase {
+
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @Autowired
+        RestaurantRepository restaurantRepository;
+
+        @Autowired
+        ListResponseService listResponseService;
+
+        // may be wrapped in the query-counting proxy
+        @Autowired
+        DataSource dataSourceBean;
+
+        CountingDataSource dataSource;
+
+        Restaurant chipotle;
+
+        @BeforeEach
+        public void setup() throws SQLException {
+                restaurantRepository.deleteAll();
+                listResponseService.clear();
+                chipotle = restaurantRepository.save(Restaurant.builder().name("Chipotle").description("Mexican").build());
+                dataSource = dataSourceBean.unwrap(CountingDataSource.class);
+                dataSource.connections.set(0);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_uses_one_connection() throws Exception {
+                mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk()).andExpect(queryCount(1));
+                assertEquals(1, dataSource.connections.get());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_uses_one_connection() throws Exception {
+                mockMvc.perform(get("/api/restaurants?id=%d".formatted(chipotle.getId()))).andExpect(status().isOk());
+                assertEquals(1, dataSource.connections.get());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void post_uses_one_connection() throws Exception {
+                mockMvc.perform(post("/api/restaurants/post?name=Freebirds&description=Burritos").with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(queryCount(1));
+                assertEquals(1, dataSource.connections.get());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void put_uses_one_connection() throws Exception {
+                mockMvc.perform(put("/api/restaurants?id=%d".formatted(chipotle.getId()))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"name\":\"Chipotle\",\"description\":\"Tex-Mex\"}")
+                                .with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(queryCount(1));
+                assertEquals(1, dataSource.connections.get());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void delete_uses_one_connection() throws Exception {
+                mockMvc.perform(delete("/api/restaurants?id=%d".formatted(chipotle.getId())).with(csrf()))
+                                .andExpect(status().isOk())
+                                .andExpect(queryCount(1));
+                assertEquals(1, dataSource.connections.get());
+        }
+
+        static class CountingDataSource extends DelegatingDataSource {
+                final AtomicInteger connections = new AtomicInteger();
+
+                CountingDataSource(DataSource target) {
+                        super(target);
+                }
+
+                @Override
+                public Connection getConnection() throws SQLException {
+                        connections.incrementAndGet();
+                        return super.getConnection();
+                }
+        }
+
+        @TestConfiguration
+        static class CountingDataSourceConfig {
+                @Bean
+                static BeanPostProcessor countingDataSourcePostProcessor() {
+                        return new BeanPostProcessor() {
+                                @Override
+                                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                                        return bean instanceof DataSource ? new CountingDataSource((DataSource) bean) : bean;
+                                }
+                        };
+                }
+        }
+}
@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.services.RestaurantService;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
@@ -9,7 +10,9 @@ import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -22,8 +25,25 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
-
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.hamcrest.Matchers.hasItem;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
@@ -31,7 +51,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = RestaurantsController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, RestaurantService.class })
 public class RestaurantsControllerTests extends ControllerTestCase {
 
         @MockBean
@@ -40,6 +60,21 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        ProjectionService projectionService;
+
+        @Autowired
+        ListResponseService listResponseService;
+
+        // the test context is shared, so don't let one test's list bodies leak into the next
+        @BeforeEach
+        public void clearListResponses() {
+                listResponseService.clear();
+        }
+
         // Authorization tests for /api/phones/admin/all
 
         @Test
@@ -187,12 +222,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_restaurant() throws Exception {
                 // arrange
 
-                Restaurant restaurant = Restaurant.builder()
-                                .name("Taco Bell")
-                                .description("Mexican")
-                                .build();
-
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.of(restaurant));
+                when(restaurantRepository.removeById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -201,8 +231,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
-                verify(restaurantRepository, times(1)).delete(any());
+                verify(restaurantRepository, times(1)).removeById(15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -214,7 +243,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(restaurantRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -223,7 +252,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
+                verify(restaurantRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 not found", json.get("message"));
         }
@@ -233,11 +262,6 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         public void admin_can_edit_an_existing_restaurant() throws Exception {
                 // arrange
 
-                Restaurant restaurantOrig = Restaurant.builder().id(67L)
-                                .name("Chipotle")
-                                .description("Mexican")
-                                .build();
-
                 Restaurant restaurantEdited = Restaurant.builder().id(67L)
                                 .name("Taco Bell")
                                 .description("American")
@@ -245,7 +269,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(restaurantEdited);
 
-                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(restaurantOrig));
+                when(restaurantRepository.updateById(eq(67L), eq(restaurantEdited))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -257,8 +281,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(67L);
-                verify(restaurantRepository, times(1)).save(restaurantEdited); // should be saved with correct user
+                verify(restaurantRepository, times(1)).updateById(67L, restaurantEdited); // should be saved with correct user
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -277,7 +300,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(editedRestaurant);
 
-                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(restaurantRepository.updateById(eq(67L), eq(editedRestaurant))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -289,9 +312,272 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(67L);
+                verify(restaurantRepository, times(1)).updateById(67L, editedRestaurant);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for keyset pagination of /api/restaurants/all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_restaurants() throws Exception {
+
+                // arrange
+                Restaurant restaurant1 = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+                Restaurant restaurant2 = Restaurant.builder().id(2L).name("Woodstocks").description("Pizza").build();
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(restaurant1, restaurant2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all?limit=1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(restaurant1), "1"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_page_of_restaurants_after_cursor() throws Exception {
+
+                // arrange
+                Restaurant restaurant2 = Restaurant.builder().id(2L).name("Woodstocks").description("Pizza").build();
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(restaurant2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all?limit=1&after=1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(1L), eq(PageRequest.of(0, 2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(restaurant2), null));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for /api/restaurants/all/stream
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_restaurants() throws Exception {
+
+                // arrange
+                Restaurant restaurant1 = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+                Restaurant restaurant2 = Restaurant.builder().id(2L).name("Woodstocks").description("Pizza").build();
+
+                when(restaurantRepository.streamAll()).thenReturn(Stream.of(restaurant1, restaurant2));
+                when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<Restaurant>> rows = invocation.getArgument(0);
+                        List<Restaurant> streamed = rows.get().collect(Collectors.toList());
+                        return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+                });
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/restaurants/all/stream"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).streamAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(restaurant1, restaurant2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for conditional GET on /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_restaurants_answers_304_when_etag_matches() throws Exception {
+                // arrange
+                when(restaurantRepository.findAll()).thenReturn(List.of());
+
+                MvcResult first = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+                String etag = first.getResponse().getHeader("ETag");
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void etag_for_all_restaurants_changes_after_a_write() throws Exception {
+                // arrange
+                Restaurant restaurant1 = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                when(restaurantRepository.findAll()).thenReturn(List.of());
+                when(restaurantRepository.save(eq(restaurant1))).thenReturn(restaurant1);
+
+                String before = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+
+                // act
+                mockMvc.perform(post("/api/restaurants/post?name=Chipotle&description=Mexican").with(csrf()))
+                                .andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", before))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(2)).findAll();
+                assertNotEquals(before, response.getResponse().getHeader("ETag"));
+        }
+
+        // Tests for the serialized body cache behind /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void repeated_get_all_reuses_the_serialized_body() throws Exception {
+                // arrange
+                Restaurant restaurant1 = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                when(restaurantRepository.findAll()).thenReturn(List.of(restaurant1));
+
+                // act
+                mockMvc.perform(get("/api/restaurants/all")).andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).findAll();
+                assertEquals(mapper.writeValueAsString(List.of(restaurant1)), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_is_gzipped_when_the_client_accepts_it() throws Exception {
+                // arrange
+                Restaurant restaurant1 = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .build();
+
+                when(restaurantRepository.findAll()).thenReturn(List.of(restaurant1));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all").header("Accept-Encoding", "gzip"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Content-Encoding", "gzip"))
+                                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                                .andReturn();
+
+                // assert
+                byte[] body = response.getResponse().getContentAsByteArray();
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                        String json = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                        assertEquals(mapper.writeValueAsString(List.of(restaurant1)), json);
+                }
+        }
+
+        // Tests for ?fields=
+
+        @Test
+        public void logged_out_users_cannot_get_fields() throws Exception {
+                mockMvc.perform(get("/api/restaurants/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_of_all() throws Exception {
+
+                // arrange
+
+                List<Map<String, Object>> rows = List.of(Map.of("name", "Chipotle", "description", "Mexican"));
+                when(projectionService.findAll(eq(Restaurant.class), eq(List.of("name", "description")))).thenReturn(rows);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all?fields=name,description"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_by_id() throws Exception {
+
+                // arrange
+
+                Map<String, Object> row = Map.of("name", "Chipotle");
+                when(projectionService.getById(eq(Restaurant.class), eq(7L), eq(List.of("name")))).thenReturn(row);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/restaurants?id=7&fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void fields_by_id_is_404_when_the_id_does_not_exist() throws Exception {
+
+                // arrange
+
+                when(projectionService.getById(eq(Restaurant.class), eq(7L), eq(List.of("name"))))
+                                .thenThrow(new EntityNotFoundException(Restaurant.class, 7L));
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/restaurants?id=7&fields=name"))
+                                .andExpect(status().isNotFound()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("EntityNotFoundException", json.get("type"));
+                assertEquals("Restaurant with id 7 not found", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void unknown_fields_are_a_bad_request() throws Exception {
+
+                // arrange
+
+                when(projectionService.findAll(eq(Restaurant.class), eq(List.of("price"))))
+                                .thenThrow(new BadRequestException("Unknown field price for Restaurant; expected some of [description, id, name]"));
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all?fields=price"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("BadRequestException", json.get("type"));
+                assertEquals("Unknown field price for Restaurant; expected some of [description, id, name]", json.get("message"));
+        }
 }
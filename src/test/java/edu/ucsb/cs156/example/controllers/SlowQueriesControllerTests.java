@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.SlowQuery;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.SlowQueryService;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SlowQueriesController.class)
+public class SlowQueriesControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  SlowQueryService slowQueryService;
+
+  @Test
+  public void slow_queries__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void slow_queries__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void slow_queries__admin_logged_in() throws Exception {
+
+    // arrange
+
+    SlowQuery slowQuery = SlowQuery.builder()
+        .at(Instant.parse("2022-01-03T00:00:00Z"))
+        .elapsedMillis(250)
+        .sql("select * from users where email=?")
+        .parameters(List.of(List.of("cgaucho@ucsb.edu")))
+        .endpoint("GET /api/currentUser")
+        .handler("UserInfoController.currentUser")
+        .build();
+    when(slowQueryService.recent()).thenReturn(List.of(slowQuery));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/slowqueries"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(List.of(slowQuery));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void clear_slow_queries__user_logged_in() throws Exception {
+    mockMvc.perform(delete("/api/admin/slowqueries").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void clear_slow_queries__admin_logged_in() throws Exception {
+
+    // act
+
+    MvcResult response = mockMvc.perform(delete("/api/admin/slowqueries").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(slowQueryService, times(1)).clear();
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Slow queries cleared", json.get("message"));
+  }
+}
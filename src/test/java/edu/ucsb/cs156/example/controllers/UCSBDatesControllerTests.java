@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.services.UCSBDateService;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
@@ -9,7 +10,9 @@ import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -24,16 +27,27 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 import java.time.LocalDateTime;
 
 import java.util.Optional;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDatesController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, UCSBDateService.class })
 public class UCSBDatesControllerTests extends ControllerTestCase {
 
         @MockBean
@@ -42,6 +56,21 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        ProjectionService projectionService;
+
+        @Autowired
+        ListResponseService listResponseService;
+
+        // the test context is shared, so don't let one test's list bodies leak into the next
+        @BeforeEach
+        public void clearListResponses() {
+                listResponseService.clear();
+        }
+
         // Authorization tests for /api/ucsbdates/admin/all
 
         @Test
@@ -199,15 +228,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                UCSBDate ucsbDate1 = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
-                                .build();
-
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.of(ucsbDate1));
+                when(ucsbDateRepository.removeById(eq(15L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -216,8 +237,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
-                verify(ucsbDateRepository, times(1)).delete(any());
+                verify(ucsbDateRepository, times(1)).removeById(15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -229,7 +249,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(ucsbDateRepository.removeById(eq(15L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -238,7 +258,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
+                verify(ucsbDateRepository, times(1)).removeById(15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 not found", json.get("message"));
         }
@@ -248,16 +268,9 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         public void admin_can_edit_an_existing_ucsbdate() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
                 LocalDateTime ldt2 = LocalDateTime.parse("2023-01-03T00:00:00");
 
-                UCSBDate ucsbDateOrig = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
-                                .build();
-
-                UCSBDate ucsbDateEdited = UCSBDate.builder()
+                UCSBDate ucsbDateEdited = UCSBDate.builder().id(67L)
                                 .name("firstDayOfFestivus")
                                 .quarterYYYYQ("20232")
                                 .localDateTime(ldt2)
@@ -265,7 +278,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(ucsbDateEdited);
 
-                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.of(ucsbDateOrig));
+                when(ucsbDateRepository.updateById(eq(67L), eq(ucsbDateEdited))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -277,8 +290,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(67L);
-                verify(ucsbDateRepository, times(1)).save(ucsbDateEdited); // should be saved with correct user
+                verify(ucsbDateRepository, times(1)).updateById(67L, ucsbDateEdited); // should be saved with correct user
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -298,7 +310,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(ucsbEditedDate);
 
-                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(ucsbDateRepository.updateById(eq(67L), eq(ucsbEditedDate))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -310,9 +322,386 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(67L);
+                verify(ucsbDateRepository, times(1)).updateById(67L, ucsbEditedDate);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 67 not found", json.get("message"));
 
         }
+
+        // Tests for keyset pagination of /api/ucsbdates/all
+
+        @Test
+        public void logged_out_users_cannot_get_a_page() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/all?limit=2"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_ucsbdates() throws Exception {
+
+                // arrange
+                UCSBDate ucsbDate1 = UCSBDate.builder().id(1L).name("firstDayOfClasses").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00")).build();
+                UCSBDate ucsbDate2 = UCSBDate.builder().id(2L).name("lastDayOfClasses").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00")).build();
+                UCSBDate ucsbDate3 = UCSBDate.builder().id(3L).name("finalsWeek").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-03-14T00:00:00")).build();
+
+                when(ucsbDateRepository.findFirstPage(eq(UCSBDateService.UNDATED), eq(PageRequest.of(0, 3))))
+                                .thenReturn(Arrays.asList(ucsbDate1, ucsbDate2, ucsbDate3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findFirstPage(eq(UCSBDateService.UNDATED), eq(PageRequest.of(0, 3)));
+                String expectedJson = mapper.writeValueAsString(
+                                new KeysetPage<>(Arrays.asList(ucsbDate1, ucsbDate2), "2022-03-11T00:00,2"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_last_page_of_ucsbdates() throws Exception {
+
+                // arrange
+                UCSBDate ucsbDate3 = UCSBDate.builder().id(3L).name("finalsWeek").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-03-14T00:00:00")).build();
+
+                when(ucsbDateRepository.findPageAfter(eq(UCSBDateService.UNDATED), eq(LocalDateTime.parse("2022-03-11T00:00:00")), eq(2L),
+                                eq(PageRequest.of(0, 3)))).thenReturn(Arrays.asList(ucsbDate3));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("limit", "2")
+                                .param("after", "2022-03-11T00:00,2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findPageAfter(eq(UCSBDateService.UNDATED), eq(LocalDateTime.parse("2022-03-11T00:00:00")),
+                                eq(2L), eq(PageRequest.of(0, 3)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(ucsbDate3), null));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void a_date_without_a_localDateTime_gives_a_cursor_the_next_page_accepts() throws Exception {
+
+                // arrange
+                UCSBDate undated = UCSBDate.builder().id(1L).name("tbd").quarterYYYYQ("20222").build();
+                UCSBDate ucsbDate2 = UCSBDate.builder().id(2L).name("lastDayOfClasses").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00")).build();
+
+                when(ucsbDateRepository.findFirstPage(eq(UCSBDateService.UNDATED), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(undated, ucsbDate2));
+                when(ucsbDateRepository.findPageAfter(eq(UCSBDateService.UNDATED), eq(UCSBDateService.UNDATED),
+                                eq(1L), eq(PageRequest.of(0, 2)))).thenReturn(Arrays.asList(ucsbDate2));
+
+                // act
+                MvcResult first = mockMvc.perform(get("/api/ucsbdates/all?limit=1"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult second = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("limit", "1")
+                                .param("after", "1900-01-01T00:00,1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(undated), "1900-01-01T00:00,1")),
+                                first.getResponse().getContentAsString());
+                assertEquals(mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(ucsbDate2), null)),
+                                second.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_with_malformed_cursor_is_a_bad_request() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("limit", "2")
+                                .param("after", "not-a-cursor"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("BadRequestException", json.get("type"));
+                assertEquals("Invalid cursor: not-a-cursor", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_with_unparseable_date_in_cursor_is_a_bad_request() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("limit", "2")
+                                .param("after", "yesterday,2"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("Invalid cursor: yesterday,2", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_with_unparseable_id_in_cursor_is_a_bad_request() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("limit", "2")
+                                .param("after", "2022-03-11T00:00:00,two"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("BadRequestException", json.get("type"));
+                assertEquals("Invalid cursor: 2022-03-11T00:00:00,two", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void cursor_without_limit_is_a_bad_request() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all")
+                                .param("after", "2022-03-11T00:00:00,2"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("after requires limit", json.get("message"));
+                verify(ucsbDateRepository, never()).findAll();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void page_limit_must_be_in_range() throws Exception {
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?limit=0"))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("limit must be between 1 and 1000", json.get("message"));
+
+                mockMvc.perform(get("/api/ucsbdates/all?limit=1001"))
+                                .andExpect(status().isBadRequest());
+        }
+
+        // Tests for /api/ucsbdates/all/stream
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_ucsbdates() throws Exception {
+
+                // arrange
+                UCSBDate ucsbDate1 = UCSBDate.builder().id(1L).name("firstDayOfClasses").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00")).build();
+                UCSBDate ucsbDate2 = UCSBDate.builder().id(2L).name("lastDayOfClasses").quarterYYYYQ("20222")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00")).build();
+
+                when(ucsbDateRepository.streamAll()).thenReturn(Stream.of(ucsbDate1, ucsbDate2));
+                when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<UCSBDate>> rows = invocation.getArgument(0);
+                        List<UCSBDate> streamed = rows.get().collect(Collectors.toList());
+                        return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+                });
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/ucsbdates/all/stream"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).streamAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(ucsbDate1, ucsbDate2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for /api/ucsbdates/quarter
+
+        @Test
+        public void logged_out_users_cannot_get_dates_in_a_quarter() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_dates_in_a_quarter_and_repeat_requests_are_cached() throws Exception {
+                // arrange
+
+                UCSBDate firstDay = UCSBDate.builder().id(1L).quarterYYYYQ("20221").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-01-03T00:00:00")).build();
+                UCSBDate lastDay = UCSBDate.builder().id(2L).quarterYYYYQ("20221").name("lastDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-03-11T00:00:00")).build();
+
+                List<UCSBDate> dates = List.of(firstDay, lastDay);
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20221"))).thenReturn(dates);
+
+                // act
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221")).andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20221"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQ(eq("20221"));
+                String expectedJson = mapper.writeValueAsString(dates);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void posting_a_date_evicts_its_quarter() throws Exception {
+                // arrange
+
+                UCSBDate ucsbDate = UCSBDate.builder().quarterYYYYQ("20231").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2023-01-09T00:00:00")).build();
+
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20231"))).thenReturn(List.of());
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20232"))).thenReturn(List.of());
+                when(ucsbDateRepository.save(eq(ucsbDate))).thenReturn(ucsbDate);
+
+                // act
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20231")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20232")).andExpect(status().isOk());
+                mockMvc.perform(post("/api/ucsbdates/post?quarterYYYYQ=20231&name=firstDayOfClasses&localDateTime=2023-01-09T00:00:00")
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20231")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20232")).andExpect(status().isOk());
+
+                // assert
+                verify(ucsbDateRepository, times(2)).findAllByQuarterYYYYQ(eq("20231"));
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQ(eq("20232"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void updating_a_date_evicts_its_old_and_new_quarters() throws Exception {
+                // arrange
+
+                UCSBDate moved = UCSBDate.builder().id(41L).quarterYYYYQ("20241").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2024-01-08T00:00:00")).build();
+                UCSBDate untouched = UCSBDate.builder().id(42L).quarterYYYYQ("20242").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2024-04-01T00:00:00")).build();
+                UCSBDate edited = UCSBDate.builder().id(41L).quarterYYYYQ("20243").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2024-06-24T00:00:00")).build();
+
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20241"))).thenReturn(List.of(moved));
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20242"))).thenReturn(List.of(untouched));
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20243"))).thenReturn(List.of());
+                when(ucsbDateRepository.updateById(eq(41L), eq(edited))).thenReturn(1);
+
+                // act
+                for (String quarter : List.of("20241", "20242", "20243")) {
+                        mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=" + quarter)).andExpect(status().isOk());
+                }
+                mockMvc.perform(put("/api/ucsbdates?id=41")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding("utf-8")
+                                .content(mapper.writeValueAsString(edited))
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+                for (String quarter : List.of("20241", "20242", "20243")) {
+                        mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=" + quarter)).andExpect(status().isOk());
+                }
+
+                // assert
+                verify(ucsbDateRepository, times(2)).findAllByQuarterYYYYQ(eq("20241"));
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQ(eq("20242"));
+                verify(ucsbDateRepository, times(2)).findAllByQuarterYYYYQ(eq("20243"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void deleting_a_date_evicts_only_its_quarter() throws Exception {
+                // arrange
+
+                UCSBDate deleted = UCSBDate.builder().id(51L).quarterYYYYQ("20251").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2025-01-06T00:00:00")).build();
+                UCSBDate untouched = UCSBDate.builder().id(52L).quarterYYYYQ("20252").name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2025-03-31T00:00:00")).build();
+
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20251"))).thenReturn(List.of(deleted));
+                when(ucsbDateRepository.findAllByQuarterYYYYQ(eq("20252"))).thenReturn(List.of(untouched));
+                when(ucsbDateRepository.removeById(eq(51L))).thenReturn(1);
+
+                // act
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20251")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20252")).andExpect(status().isOk());
+                mockMvc.perform(delete("/api/ucsbdates?id=51").with(csrf())).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20251")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdates/quarter?quarterYYYYQ=20252")).andExpect(status().isOk());
+
+                // assert
+                verify(ucsbDateRepository, times(2)).findAllByQuarterYYYYQ(eq("20251"));
+                verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQ(eq("20252"));
+        }
+
+        // Tests for conditional GET on /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_ucsbdates_answers_304_when_etag_matches() throws Exception {
+                // arrange
+                when(ucsbDateRepository.findAll()).thenReturn(List.of());
+
+                MvcResult first = mockMvc.perform(get("/api/ucsbdates/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+                String etag = first.getResponse().getHeader("ETag");
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        // Tests for ?fields=
+
+        @Test
+        public void logged_out_users_cannot_get_fields() throws Exception {
+                mockMvc.perform(get("/api/ucsbdates/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_of_all() throws Exception {
+
+                // arrange
+
+                List<Map<String, Object>> rows = List.of(Map.of("name", "firstDayOfClasses", "quarterYYYYQ", "20222"));
+                when(projectionService.findAll(eq(UCSBDate.class), eq(List.of("name", "quarterYYYYQ")))).thenReturn(rows);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?fields=name,quarterYYYYQ"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_by_id() throws Exception {
+
+                // arrange
+
+                Map<String, Object> row = Map.of("name", "firstDayOfClasses");
+                when(projectionService.getById(eq(UCSBDate.class), eq(7L), eq(List.of("name")))).thenReturn(row);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates?id=7&fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
 }
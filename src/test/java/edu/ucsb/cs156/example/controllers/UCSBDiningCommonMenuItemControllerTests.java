@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsMenuItemService;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
@@ -9,7 +10,9 @@ import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemsRepository;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -22,16 +25,31 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import java.util.Optional;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.hamcrest.Matchers.hasItem;
 
 @WebMvcTest(controllers = UCSBDiningCommonsMenuItemController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, UCSBDiningCommonsMenuItemService.class })
 public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
 
         @MockBean
@@ -40,6 +58,21 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        ProjectionService projectionService;
+
+        @Autowired
+        ListResponseService listResponseService;
+
+        // the test context is shared, so don't let one test's list bodies leak into the next
+        @BeforeEach
+        public void clearListResponses() {
+                listResponseService.clear();
+        }
+
         @Test
         public void logged_out_users_cannot_get_all() throws Exception {
                 mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all"))
@@ -184,13 +217,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
         public void admin_can_delete_an_item() throws Exception {
                 // arrange
 
-                UCSBDiningCommonsMenuItem BPPwC = UCSBDiningCommonsMenuItem.builder()
-                                .name("Baked Pesto Pasta with Chicken")
-                                .diningCommonsCode("ortega")
-                                .station("Entree Specials")
-                                .build();
-
-                when(ucsbDiningCommonsMenuItemsRepository.findById(eq(1L))).thenReturn(Optional.of(BPPwC));
+                when(ucsbDiningCommonsMenuItemsRepository.removeById(eq(1L))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -199,8 +226,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findById(1L);
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).delete(any());
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).removeById(1L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 1 deleted", json.get("message"));
@@ -212,7 +238,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
                         throws Exception {
                 // arrange
 
-                when(ucsbDiningCommonsMenuItemsRepository.findById(eq(114514L))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsMenuItemsRepository.removeById(eq(114514L))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -221,7 +247,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findById(114514L);
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).removeById(114514L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 114514 not found", json.get("message"));
         }
@@ -231,13 +257,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
         public void admin_can_edit_an_existing_item() throws Exception {
                 // arrange
 
-                UCSBDiningCommonsMenuItem item_Orig = UCSBDiningCommonsMenuItem.builder()
-                                .name("Baked Pesto Pasta with Chicken")
-                                .diningCommonsCode("ortega")
-                                .station("Entree Specials")
-                                .build();
-
-                UCSBDiningCommonsMenuItem item_Edited = UCSBDiningCommonsMenuItem.builder()
+                UCSBDiningCommonsMenuItem item_Edited = UCSBDiningCommonsMenuItem.builder().id(1L)
                                 .name("Cream of Broccoli Soup (v)")
                                 .diningCommonsCode("portola")
                                 .station("Greens & Grains")
@@ -245,7 +265,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
 
                 String requestBody = mapper.writeValueAsString(item_Edited);
 
-                when(ucsbDiningCommonsMenuItemsRepository.findById(eq(1L))).thenReturn(Optional.of(item_Orig));
+                when(ucsbDiningCommonsMenuItemsRepository.updateById(eq(1L), eq(item_Edited))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -257,8 +277,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findById(1L);
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).save(item_Edited); // should be saved with updated info
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).updateById(1L, item_Edited); // should be saved with updated info
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -275,7 +294,7 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
 
                 String requestBody = mapper.writeValueAsString(BPPwC_Edited);
 
-                when(ucsbDiningCommonsMenuItemsRepository.findById(eq(1L))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsMenuItemsRepository.updateById(eq(1L), eq(BPPwC_Edited))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -287,10 +306,312 @@ public class UCSBDiningCommonMenuItemControllerTests extends ControllerTestCase{
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findById(1L);
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).updateById(1L, BPPwC_Edited);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommonsMenuItem with id 1 not found", json.get("message"));
 
         }
-}
 
+        // Tests for keyset pagination of /api/ucsbdiningcommonsmenuitem/all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_items() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item1 = UCSBDiningCommonsMenuItem.builder().id(1L)
+                                .diningCommonsCode("ortega").name("Chicken Caesar Salad").station("Entrees").build();
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder().id(2L)
+                                .diningCommonsCode("ortega").name("Tofu Banh Mi Sandwich (v)").station("Entree Specials").build();
+
+                when(ucsbDiningCommonsMenuItemsRepository.findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(item1, item2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?limit=1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(item1), "1"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_page_of_items_after_cursor() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder().id(2L)
+                                .diningCommonsCode("ortega").name("Tofu Banh Mi Sandwich (v)").station("Entree Specials").build();
+
+                when(ucsbDiningCommonsMenuItemsRepository.findByIdGreaterThanOrderByIdAsc(eq(1L), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(item2));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?limit=1&after=1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(1L), eq(PageRequest.of(0, 2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(item2), null));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for /api/ucsbdiningcommonsmenuitem/all/stream
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_items() throws Exception {
+
+                // arrange
+                UCSBDiningCommonsMenuItem item1 = UCSBDiningCommonsMenuItem.builder().id(1L)
+                                .diningCommonsCode("ortega").name("Chicken Caesar Salad").station("Entrees").build();
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder().id(2L)
+                                .diningCommonsCode("ortega").name("Tofu Banh Mi Sandwich (v)").station("Entree Specials").build();
+
+                when(ucsbDiningCommonsMenuItemsRepository.streamAll()).thenReturn(Stream.of(item1, item2));
+                when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<UCSBDiningCommonsMenuItem>> rows = invocation.getArgument(0);
+                        List<UCSBDiningCommonsMenuItem> streamed = rows.get().collect(Collectors.toList());
+                        return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+                });
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all/stream"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).streamAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(item1, item2));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_post() throws Exception {
+                mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("[]")
+                                .with(csrf()))
+                                .andExpect(status().is(403)); // only admins can bulk post
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_bulk_post_a_json_array() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem item1 = UCSBDiningCommonsMenuItem.builder()
+                                .name("BakedPestoPastawithChicken")
+                                .diningCommonsCode("ortega")
+                                .station("EntreeSpecials")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder()
+                                .name("TofuBanhMiSandwich")
+                                .diningCommonsCode("ortega")
+                                .station("EntreeSpecials")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> items = Arrays.asList(item1, item2);
+
+                // ids sent by the client are ignored
+                String requestBody = "[{\"id\":17,\"name\":\"BakedPestoPastawithChicken\",\"diningCommonsCode\":\"ortega\",\"station\":\"EntreeSpecials\"},"
+                                + "{\"name\":\"TofuBanhMiSandwich\",\"diningCommonsCode\":\"ortega\",\"station\":\"EntreeSpecials\"}]";
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).saveAll(eq(items));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 UCSBDiningCommonsMenuItems created", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_bulk_post_ndjson() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem item1 = UCSBDiningCommonsMenuItem.builder()
+                                .name("BakedPestoPastawithChicken")
+                                .diningCommonsCode("ortega")
+                                .station("EntreeSpecials")
+                                .build();
+
+                UCSBDiningCommonsMenuItem item2 = UCSBDiningCommonsMenuItem.builder()
+                                .name("TofuBanhMiSandwich")
+                                .diningCommonsCode("ortega")
+                                .station("EntreeSpecials")
+                                .build();
+
+                List<UCSBDiningCommonsMenuItem> items = Arrays.asList(item1, item2);
+
+                String requestBody = "{\"name\":\"BakedPestoPastawithChicken\",\"diningCommonsCode\":\"ortega\",\"station\":\"EntreeSpecials\"}\n"
+                                + "{\"name\":\"TofuBanhMiSandwich\",\"diningCommonsCode\":\"ortega\",\"station\":\"EntreeSpecials\"}\n";
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).saveAll(eq(items));
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("2 UCSBDiningCommonsMenuItems created", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void bulk_post_of_malformed_json_is_a_bad_request() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content("[{\"name\":\"TofuBanhMiSandwich\",")
+                                                .with(csrf()))
+                                .andExpect(status().isBadRequest()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, never()).saveAll(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("BadRequestException", json.get("type"));
+                assertTrue(((String) json.get("message")).startsWith("Malformed JSON: "));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void bulk_post_of_more_than_the_maximum_rows_is_rejected() throws Exception {
+                // arrange
+                String requestBody = "{\"name\":\"TofuBanhMiSandwich\",\"diningCommonsCode\":\"ortega\",\"station\":\"EntreeSpecials\"}\n"
+                                .repeat(1001);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                                .contentType(MediaType.APPLICATION_NDJSON)
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isPayloadTooLarge()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, never()).saveAll(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("At most 1000 items can be posted at once", json.get("message"));
+        }
+
+        // Tests for conditional GET on /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_menu_items_answers_304_when_etag_matches() throws Exception {
+                // arrange
+                when(ucsbDiningCommonsMenuItemsRepository.findAll()).thenReturn(List.of());
+
+                MvcResult first = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+                String etag = first.getResponse().getHeader("ETag");
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsMenuItemsRepository, times(1)).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        // Tests for binary formats on /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_items_as_smile() throws Exception {
+                // arrange
+
+                UCSBDiningCommonsMenuItem BPPwC = UCSBDiningCommonsMenuItem.builder()
+                                .id(1L)
+                                .name("Baked Pesto Pasta with Chicken")
+                                .diningCommonsCode("ortega")
+                                .station("Entree Specials")
+                                .build();
+
+                when(ucsbDiningCommonsMenuItemsRepository.findAll()).thenReturn(List.of(BPPwC));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all")
+                                .accept("application/x-jackson-smile"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().contentType("application/x-jackson-smile"))
+                                .andExpect(header().stringValues("Vary", hasItem("Accept")))
+                                .andReturn();
+
+                // assert
+                ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+                UCSBDiningCommonsMenuItem[] items = smileMapper.readValue(
+                                response.getResponse().getContentAsByteArray(), UCSBDiningCommonsMenuItem[].class);
+                assertEquals(List.of(BPPwC), List.of(items));
+        }
+
+        // Tests for ?fields=
+
+        @Test
+        public void logged_out_users_cannot_get_fields() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_of_all() throws Exception {
+
+                // arrange
+
+                List<Map<String, Object>> rows = List.of(Map.of("name", "Baked Pesto Pasta with Chicken", "station", "Entree Specials"));
+                when(projectionService.findAll(eq(UCSBDiningCommonsMenuItem.class), eq(List.of("name", "station")))).thenReturn(rows);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?fields=name,station"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_by_id() throws Exception {
+
+                // arrange
+
+                Map<String, Object> row = Map.of("name", "Baked Pesto Pasta with Chicken");
+                when(projectionService.getById(eq(UCSBDiningCommonsMenuItem.class), eq(7L), eq(List.of("name")))).thenReturn(row);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem?id=7&fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
+}
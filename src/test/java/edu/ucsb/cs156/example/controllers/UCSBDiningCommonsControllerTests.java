@@ -2,6 +2,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.services.UCSBDiningCommonsService;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
@@ -21,17 +22,35 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
-import java.util.Optional;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.web.util.NestedServletException;
+import edu.ucsb.cs156.example.models.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.reset;
 
 @WebMvcTest(controllers = UCSBDiningCommonsController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, UCSBDiningCommonsService.class })
 public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
         @MockBean
@@ -40,6 +59,26 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @MockBean
+        ProjectionService projectionService;
+
+        @Autowired
+        ListResponseService listResponseService;
+
+        @Autowired
+        UCSBDiningCommonsService ucsbDiningCommonsService;
+
+        @BeforeEach
+        public void resetCommonsCache() {
+                // the service preloads its snapshot at startup and keeps it across tests
+                ucsbDiningCommonsService.invalidate();
+                listResponseService.clear();
+                reset(ucsbDiningCommonsRepository);
+        }
+
         // Authorization tests for /api/ucsbdiningcommons/admin/all
 
         @Test
@@ -95,7 +134,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .longitude(-119.85277)
                                 .build();
 
-                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(commons));
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(commons));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo"))
@@ -103,7 +142,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(ucsbDiningCommonsRepository, times(1)).findById(eq("carrillo"));
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
                 String expectedJson = mapper.writeValueAsString(commons);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -115,7 +154,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // arrange
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of());
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=munger-hall"))
@@ -123,7 +162,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(ucsbDiningCommonsRepository, times(1)).findById(eq("munger-hall"));
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("EntityNotFoundException", json.get("type"));
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
@@ -187,7 +226,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .longitude(-119.84709)
                                 .build();
 
-                when(ucsbDiningCommonsRepository.save(eq(ortega))).thenReturn(ortega);
+                when(ucsbDiningCommonsRepository.insert(eq(ortega))).thenReturn(ortega);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -196,7 +235,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).save(ortega);
+                verify(ucsbDiningCommonsRepository, times(1)).insert(ortega);
                 String expectedJson = mapper.writeValueAsString(ortega);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -207,17 +246,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
 
-                UCSBDiningCommons portola = UCSBDiningCommons.builder()
-                                .name("Portola")
-                                .code("portola")
-                                .hasSackMeal(true)
-                                .hasTakeOutMeal(true)
-                                .hasDiningCam(true)
-                                .latitude(34.417723)
-                                .longitude(-119.867427)
-                                .build();
-
-                when(ucsbDiningCommonsRepository.findById(eq("portola"))).thenReturn(Optional.of(portola));
+                when(ucsbDiningCommonsRepository.removeByCode(eq("portola"))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,8 +255,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
-                verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+                verify(ucsbDiningCommonsRepository, times(1)).removeByCode("portola");
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -239,7 +267,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsRepository.removeByCode(eq("munger-hall"))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -248,7 +276,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
+                verify(ucsbDiningCommonsRepository, times(1)).removeByCode("munger-hall");
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
         }
@@ -258,16 +286,6 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         public void admin_can_edit_an_existing_commons() throws Exception {
                 // arrange
 
-                UCSBDiningCommons carrilloOrig = UCSBDiningCommons.builder()
-                                .name("Carrillo")
-                                .code("carrillo")
-                                .hasSackMeal(false)
-                                .hasTakeOutMeal(false)
-                                .hasDiningCam(true)
-                                .latitude(34.409953)
-                                .longitude(-119.85277)
-                                .build();
-
                 UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder()
                                 .name("Carrillo Dining Hall")
                                 .code("carrillo")
@@ -280,7 +298,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(carrilloEdited);
 
-                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(carrilloOrig));
+                when(ucsbDiningCommonsRepository.updateByCode(eq("carrillo"), eq(carrilloEdited))).thenReturn(1);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -292,8 +310,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
-                verify(ucsbDiningCommonsRepository, times(1)).save(carrilloEdited); // should be saved with updated info
+                verify(ucsbDiningCommonsRepository, times(1)).updateByCode("carrillo", carrilloEdited); // should be saved with updated info
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
@@ -315,7 +332,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 String requestBody = mapper.writeValueAsString(editedCommons);
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(ucsbDiningCommonsRepository.updateByCode(eq("munger-hall"), eq(editedCommons))).thenReturn(0);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -327,9 +344,318 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
+                verify(ucsbDiningCommonsRepository, times(1)).updateByCode("munger-hall", editedCommons);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        // Tests for keyset pagination of /api/ucsbdiningcommons/all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_first_page_of_commons() throws Exception {
+
+                // arrange
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder().code("de-la-guerra").name("De La Guerra")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409811).longitude(-119.845026).build();
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq(""), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(carrillo, dlg));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?limit=1"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(carrillo), "carrillo"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_page_of_commons_after_cursor() throws Exception {
+
+                // arrange
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder().code("de-la-guerra").name("De La Guerra")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409811).longitude(-119.845026).build();
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq("carrillo"), eq(PageRequest.of(0, 2))))
+                                .thenReturn(Arrays.asList(dlg));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?limit=1&after=carrillo"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findByCodeGreaterThanOrderByCodeAsc(eq("carrillo"), eq(PageRequest.of(0, 2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(dlg), null));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for /api/ucsbdiningcommons/all/stream
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_stream_all_commons() throws Exception {
+
+                // arrange
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder().code("de-la-guerra").name("De La Guerra")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409811).longitude(-119.845026).build();
+
+                when(ucsbDiningCommonsRepository.streamAll()).thenReturn(Stream.of(carrillo, dlg));
+                when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+                        Supplier<Stream<UCSBDiningCommons>> rows = invocation.getArgument(0);
+                        List<UCSBDiningCommons> streamed = rows.get().collect(Collectors.toList());
+                        return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+                });
+
+                // act
+                MvcResult asyncResult = mockMvc.perform(get("/api/ucsbdiningcommons/all/stream"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).streamAll();
+                String expectedJson = mapper.writeValueAsString(Arrays.asList(carrillo, dlg));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_post_a_commons_that_already_exists() throws Exception {
+                // arrange
+
+                when(ucsbDiningCommonsRepository.insert(any(UCSBDiningCommons.class)))
+                                .thenThrow(new DuplicateKeyException("duplicate key"));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdiningcommons/post?name=Ortega&code=ortega&hasSackMeal=true&hasTakeOutMeal=true&hasDiningCam=true&latitude=34.410987&longitude=-119.84709")
+                                                .with(csrf()))
+                                .andExpect(status().isConflict()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, never()).save(any());
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("EntityAlreadyExistsException", json.get("type"));
+                assertEquals("UCSBDiningCommons with id ortega already exists", json.get("message"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void other_integrity_violations_are_not_reported_as_already_exists() throws Exception {
+                // arrange
+
+                when(ucsbDiningCommonsRepository.insert(any(UCSBDiningCommons.class)))
+                                .thenThrow(new DataIntegrityViolationException("value too long"));
+
+                // act
+                NestedServletException e = assertThrows(NestedServletException.class, () -> mockMvc.perform(
+                                post("/api/ucsbdiningcommons/post?name=Ortega&code=ortega&hasSackMeal=true&hasTakeOutMeal=true&hasDiningCam=true&latitude=34.410987&longitude=-119.84709")
+                                                .with(csrf())));
+
+                // assert
+                assertEquals(DataIntegrityViolationException.class, e.getCause().getClass());
+        }
+
+        // Tests for the in-memory snapshot behind /all and getById
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void repeated_reads_are_served_from_the_snapshot() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+                CacheStats before = ucsbDiningCommonsService.stats();
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/all")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo")).andExpect(status().isOk());
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+                verify(ucsbDiningCommonsRepository, never()).findById(any());
+                CacheStats stats = ucsbDiningCommonsService.stats();
+                assertEquals(before.getMisses() + 1, stats.getMisses());
+                assertEquals(before.getHits() + 2, stats.getHits());
+                assertEquals(1, stats.getSize());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void preloaded_snapshot_serves_reads_without_a_miss() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+                long missesBefore = ucsbDiningCommonsService.stats().getMisses();
+
+                // act
+                ucsbDiningCommonsService.preload();
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+                assertEquals(missesBefore, ucsbDiningCommonsService.stats().getMisses());
+                assertEquals(mapper.writeValueAsString(carrillo), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void writes_swap_the_snapshot_without_reloading_it() throws Exception {
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409953).longitude(-119.85277).build();
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder().code("de-la-guerra").name("De La Guerra")
+                                .hasSackMeal(false).hasTakeOutMeal(false).hasDiningCam(true)
+                                .latitude(34.409811).longitude(-119.845026).build();
+                UCSBDiningCommons ortega = UCSBDiningCommons.builder().code("ortega").name("Ortega")
+                                .hasSackMeal(true).hasTakeOutMeal(true).hasDiningCam(true)
+                                .latitude(34.410987).longitude(-119.84709).build();
+                UCSBDiningCommons carrilloEdited = UCSBDiningCommons.builder().code("carrillo").name("Carrillo Dining")
+                                .hasSackMeal(true).hasTakeOutMeal(true).hasDiningCam(false)
+                                .latitude(34.409953).longitude(-119.85277).build();
+
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo, dlg));
+                when(ucsbDiningCommonsRepository.insert(eq(ortega))).thenReturn(ortega);
+                when(ucsbDiningCommonsRepository.updateByCode(eq("carrillo"), eq(carrilloEdited))).thenReturn(1);
+                when(ucsbDiningCommonsRepository.removeByCode(eq("de-la-guerra"))).thenReturn(1);
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/all")).andExpect(status().isOk());
+                mockMvc.perform(post("/api/ucsbdiningcommons/post?name=Ortega&code=ortega&hasSackMeal=true&hasTakeOutMeal=true&hasDiningCam=true&latitude=34.410987&longitude=-119.84709")
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(put("/api/ucsbdiningcommons?code=carrillo")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .characterEncoding("utf-8")
+                                .content(mapper.writeValueAsString(carrilloEdited))
+                                .with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(delete("/api/ucsbdiningcommons?code=de-la-guerra").with(csrf()))
+                                .andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+                String expectedJson = mapper.writeValueAsString(List.of(carrilloEdited, ortega));
+                assertEquals(expectedJson, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void regular_users_cannot_get_cache_stats() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/cache/stats"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_get_cache_stats() throws Exception {
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/cache/stats"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                Map<String, Object> json = responseToJson(response);
+                assertEquals("ucsbDiningCommons", json.get("name"));
+                assertEquals(0, json.get("size"));
+        }
+
+        // Tests for conditional GET on /all
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_commons_answers_304_when_etag_matches() throws Exception {
+                // arrange
+                when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of());
+
+                MvcResult first = mockMvc.perform(get("/api/ucsbdiningcommons/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                                .andReturn();
+                String etag = first.getResponse().getHeader("ETag");
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("If-None-Match", etag))
+                                .andExpect(status().isNotModified())
+                                .andExpect(header().string("ETag", etag))
+                                .andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findAll();
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        // Tests for ?fields=
+
+        @Test
+        public void logged_out_users_cannot_get_fields() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/all?fields=name"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_of_all() throws Exception {
+
+                // arrange
+
+                List<Map<String, Object>> rows = List.of(Map.of("name", "Ortega", "hasDiningCam", true));
+                when(projectionService.findAll(eq(UCSBDiningCommons.class), eq(List.of("name", "hasDiningCam")))).thenReturn(rows);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?fields=name,hasDiningCam"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_only_some_fields_by_id() throws Exception {
+
+                // arrange
+
+                Map<String, Object> row = Map.of("name", "Ortega");
+                when(projectionService.getById(eq(UCSBDiningCommons.class), eq("ortega"), eq(List.of("name")))).thenReturn(row);
+
+                // act
+
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=ortega&fields=name"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+        }
 }
@@ -0,0 +1,61 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.QueryCountTestCase;
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UCSBOrganizationsService;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Runs the organization endpoints against a real (embedded) database, where
+ * reads put rows in Hibernate's second-level cache.
+ */
+@WebMvcTest(controllers = UCSBOrganizationsController.class)
+@Import({ UCSBOrganizationsService.class, ProjectionService.class })
+public class UCSBOrganizationsControllerDatabaseTests extends QueryCountTestCase {
+
+        @MockBean
+        JsonStreamingService jsonStreamingService;
+
+        @Autowired
+        UCSBOrganizationsRepository ucsbOrganizationsRepository;
+
+        @BeforeEach
+        public void setup() {
+                ucsbOrganizationsRepository.deleteAll();
+                ucsbOrganizationsRepository.insert(UCSBOrganizations.builder()
+                                .orgCode("ZPR")
+                                .orgTranslationShort("ZETA PHI RHO")
+                                .orgTranslation("ZETA PHI RHO")
+                                .inactive(false)
+                                .build());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void post_of_a_cached_org_code_is_a_conflict() throws Exception {
+                mockMvc.perform(get("/api/ucsborganizations?orgCode=ZPR")).andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsborganizations?orgCode=ZPR")).andExpect(status().isOk());
+
+                mockMvc.perform(post("/api/ucsborganizations/post?orgCode=ZPR&orgTranslationShort=OTHER&orgTranslation=OTHER&inactive=true")
+                                .with(csrf()))
+                                .andExpect(status().isConflict())
+                                .andExpect(jsonPath("$.type").value("EntityAlreadyExistsException"));
+
+                assertEquals("ZETA PHI RHO", ucsbOrganizationsRepository.findById("ZPR").get().getOrgTranslation());
+        }
+}
@@ -3,6 +3,7 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
+import edu.ucsb.cs156.example.services.UCSBOrganizationsService;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBOrganizations;
 import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
@@ -11,7 +12,9 @@ import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -26,18 +29,33 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 
 import java.util.Optional;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ListResponseService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.web.util.NestedServletException;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
 @WebMvcTest(controllers = UCSBOrganizationsController.class)
-@Import(TestConfig.class)
+@Import({ TestConfig.class, UCSBOrganizationsService.class })
 public class UCSBOrganizationsControllerTests extends ControllerTestCase {
 
 
@@ -48,6 +66,21 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    JsonStreamingService jsonStreamingService;
+
+    @MockBean
+    ProjectionService projectionService;
+
+    @Autowired
+    ListResponseService listResponseService;
+
+    // the test context is shared, so don't let one test's list bodies leak into the next
+    @BeforeEach
+    public void clearListResponses() {
+        listResponseService.clear();
+    }
+
 
     // Authorization tests for /api/ucsborganizations/admin/all
 
@@ -198,13 +231,13 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
                         .build();
 
 
-        when(ucsbOrganizationsRepository.save(eq(krc))).thenReturn(krc);
+        when(ucsbOrganizationsRepository.insert(eq(krc))).thenReturn(krc);
 
 
         MvcResult response = mockMvc.perform(post("/api/ucsborganizations/post?orgCode=krc&orgTranslationShort=koreanRadioCl&orgTranslation=koreanRadioClub&inactive=true").with(csrf()))
                         .andExpect(status().isOk()).andReturn();
        
-        verify(ucsbOrganizationsRepository, times(1)).save(krc);
+        verify(ucsbOrganizationsRepository, times(1)).insert(krc);
         String expectedJson = mapper.writeValueAsString(krc);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -214,22 +247,14 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
     @Test
     public void admin_can_delete_a_organization() throws Exception {
 
-        UCSBOrganizations sky = UCSBOrganizations.builder()
-                        .orgCode("sky")
-                        .orgTranslationShort("skydivingClub")
-                        .orgTranslation("skydivingClubAtUCSB")
-                        .inactive(false)
-                        .build();
-        
-        when(ucsbOrganizationsRepository.findById(eq("sky"))).thenReturn(Optional.of(sky));
+        when(ucsbOrganizationsRepository.removeByOrgCode(eq("sky"))).thenReturn(1);
 
         MvcResult response = mockMvc.perform(
                         delete("/api/ucsborganizations?orgCode=sky")
                                         .with(csrf()))
                         .andExpect(status().isOk()).andReturn();
         
-        verify(ucsbOrganizationsRepository, times(1)).findById("sky");
-        verify(ucsbOrganizationsRepository, times(1)).delete(any());
+        verify(ucsbOrganizationsRepository, times(1)).removeByOrgCode("sky");
 
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrganization with id sky deleted", json.get("message"));
@@ -239,14 +264,14 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
     @Test
     public void admin_tries_to_delete_non_existant_organization_and_gets_right_error_message() throws Exception {
 
-        when(ucsbOrganizationsRepository.findById(eq("sky"))).thenReturn(Optional.empty());
+        when(ucsbOrganizationsRepository.removeByOrgCode(eq("sky"))).thenReturn(0);
 
         MvcResult response = mockMvc.perform(
                         delete("/api/ucsborganizations?orgCode=sky")
                                 .with(csrf()))
                         .andExpect(status().isNotFound()).andReturn();
         
-        verify(ucsbOrganizationsRepository, times(1)).findById("sky");
+        verify(ucsbOrganizationsRepository, times(1)).removeByOrgCode("sky");
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrganizations with id sky not found", json.get("message"));
     }
@@ -255,13 +280,6 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
     @Test
     public void admin_can_edit_an_existing_organization() throws Exception {
 
-        UCSBOrganizations clubBasketballOriginal = UCSBOrganizations.builder()
-                        .orgCode("mcb")
-                        .orgTranslationShort("mensClubBasketball")
-                        .orgTranslation("mensClubBasketballAtUCSB")
-                        .inactive(false)
-                        .build();
-
         UCSBOrganizations clubBasketballEdited = UCSBOrganizations.builder()
                         .orgCode("mcb")
                         .orgTranslationShort("mensClubBball")
@@ -271,7 +289,7 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
 
         String requestBody = mapper.writeValueAsString(clubBasketballEdited);
 
-        when(ucsbOrganizationsRepository.findById(eq("mcb"))).thenReturn(Optional.of(clubBasketballOriginal));
+        when(ucsbOrganizationsRepository.updateByOrgCode(eq("mcb"), eq(clubBasketballEdited))).thenReturn(1);
 
         MvcResult response = mockMvc.perform(
                         put("/api/ucsborganizations?orgCode=mcb")
@@ -281,8 +299,7 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
                                         .with(csrf()))
                         .andExpect(status().isOk()).andReturn();
         
-        verify(ucsbOrganizationsRepository, times(1)).findById("mcb");
-        verify(ucsbOrganizationsRepository, times(1)).save(clubBasketballEdited);
+        verify(ucsbOrganizationsRepository, times(1)).updateByOrgCode("mcb", clubBasketballEdited);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(requestBody, responseString);
     }
@@ -300,7 +317,7 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
         
         String requestBody = mapper.writeValueAsString(editedOrganization);
 
-        when(ucsbOrganizationsRepository.findById(eq("sky"))).thenReturn(Optional.empty());
+        when(ucsbOrganizationsRepository.updateByOrgCode(eq("sky"), eq(editedOrganization))).thenReturn(0);
 
         MvcResult response = mockMvc.perform(
                         put("/api/ucsborganizations?orgCode=sky")
@@ -310,8 +327,186 @@ public class UCSBOrganizationsControllerTests extends ControllerTestCase {
                                         .with(csrf()))
                         .andExpect(status().isNotFound()).andReturn();
         
-        verify(ucsbOrganizationsRepository, times(1)).findById("sky");
+        verify(ucsbOrganizationsRepository, times(1)).updateByOrgCode("sky", editedOrganization);
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrganizations with id sky not found", json.get("message"));
     }
-}
\ No newline at end of file
+
+    // Tests for keyset pagination of /api/ucsborganizations/all
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_first_page_of_organizations() throws Exception {
+
+            // arrange
+            UCSBOrganizations sky = UCSBOrganizations.builder().orgCode("SKY").orgTranslationShort("SKYDIVING CLUB")
+                            .orgTranslation("SKYDIVING CLUB AT UCSB").inactive(false).build();
+            UCSBOrganizations zpr = UCSBOrganizations.builder().orgCode("ZPR").orgTranslationShort("ZETA PHI RHO")
+                            .orgTranslation("ZETA PHI RHO").inactive(false).build();
+
+            when(ucsbOrganizationsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq(""), eq(PageRequest.of(0, 2))))
+                            .thenReturn(Arrays.asList(sky, zpr));
+
+            // act
+            MvcResult response = mockMvc.perform(get("/api/ucsborganizations/all?limit=1"))
+                            .andExpect(status().isOk()).andReturn();
+
+            // assert
+            String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(sky), "SKY"));
+            String responseString = response.getResponse().getContentAsString();
+            assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_page_of_organizations_after_cursor() throws Exception {
+
+            // arrange
+            UCSBOrganizations zpr = UCSBOrganizations.builder().orgCode("ZPR").orgTranslationShort("ZETA PHI RHO")
+                            .orgTranslation("ZETA PHI RHO").inactive(false).build();
+
+            when(ucsbOrganizationsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("SKY"), eq(PageRequest.of(0, 2))))
+                            .thenReturn(Arrays.asList(zpr));
+
+            // act
+            MvcResult response = mockMvc.perform(get("/api/ucsborganizations/all?limit=1&after=SKY"))
+                            .andExpect(status().isOk()).andReturn();
+
+            // assert
+            verify(ucsbOrganizationsRepository, times(1)).findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("SKY"), eq(PageRequest.of(0, 2)));
+            String expectedJson = mapper.writeValueAsString(new KeysetPage<>(Arrays.asList(zpr), null));
+            String responseString = response.getResponse().getContentAsString();
+            assertEquals(expectedJson, responseString);
+    }
+
+    // Tests for /api/ucsborganizations/all/stream
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_stream_all_organizations() throws Exception {
+
+            // arrange
+            UCSBOrganizations sky = UCSBOrganizations.builder().orgCode("SKY").orgTranslationShort("SKYDIVING CLUB")
+                            .orgTranslation("SKYDIVING CLUB AT UCSB").inactive(false).build();
+            UCSBOrganizations zpr = UCSBOrganizations.builder().orgCode("ZPR").orgTranslationShort("ZETA PHI RHO")
+                            .orgTranslation("ZETA PHI RHO").inactive(false).build();
+
+            when(ucsbOrganizationsRepository.streamAll()).thenReturn(Stream.of(sky, zpr));
+            when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+                    Supplier<Stream<UCSBOrganizations>> rows = invocation.getArgument(0);
+                    List<UCSBOrganizations> streamed = rows.get().collect(Collectors.toList());
+                    return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+            });
+
+            // act
+            MvcResult asyncResult = mockMvc.perform(get("/api/ucsborganizations/all/stream"))
+                            .andExpect(request().asyncStarted()).andReturn();
+            MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+                            .andExpect(status().isOk()).andReturn();
+
+            // assert
+            verify(ucsbOrganizationsRepository, times(1)).streamAll();
+            String expectedJson = mapper.writeValueAsString(Arrays.asList(sky, zpr));
+            String responseString = response.getResponse().getContentAsString();
+            assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_post_an_organization_that_already_exists() throws Exception {
+
+        when(ucsbOrganizationsRepository.insert(any(UCSBOrganizations.class)))
+                        .thenThrow(new DuplicateKeyException("duplicate key"));
+
+        MvcResult response = mockMvc.perform(post("/api/ucsborganizations/post?orgCode=krc&orgTranslationShort=koreanRadioCl&orgTranslation=koreanRadioClub&inactive=true").with(csrf()))
+                        .andExpect(status().isConflict()).andReturn();
+
+        verify(ucsbOrganizationsRepository, never()).save(any());
+        Map<String, Object> json = responseToJson(response);
+        assertEquals("EntityAlreadyExistsException", json.get("type"));
+        assertEquals("UCSBOrganizations with id krc already exists", json.get("message"));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void other_integrity_violations_are_not_reported_as_already_exists() throws Exception {
+
+        when(ucsbOrganizationsRepository.insert(any(UCSBOrganizations.class)))
+                        .thenThrow(new DataIntegrityViolationException("value too long"));
+
+        NestedServletException e = assertThrows(NestedServletException.class, () -> mockMvc.perform(
+                        post("/api/ucsborganizations/post?orgCode=krc&orgTranslationShort=koreanRadioCl&orgTranslation=koreanRadioClub&inactive=true").with(csrf())));
+        assertEquals(DataIntegrityViolationException.class, e.getCause().getClass());
+    }
+
+    // Tests for conditional GET on /all
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_all_organizations_answers_304_when_etag_matches() throws Exception {
+        // arrange
+        when(ucsbOrganizationsRepository.findAll()).thenReturn(List.of());
+
+        MvcResult first = mockMvc.perform(get("/api/ucsborganizations/all"))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string("Cache-Control", "no-cache, private"))
+                        .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsborganizations/all").header("If-None-Match", etag))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string("ETag", etag))
+                        .andReturn();
+
+        // assert
+        verify(ucsbOrganizationsRepository, times(1)).findAll();
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    // Tests for ?fields=
+
+    @Test
+    public void logged_out_users_cannot_get_fields() throws Exception {
+        mockMvc.perform(get("/api/ucsborganizations/all?fields=orgTranslationShort"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_only_some_fields_of_all() throws Exception {
+
+        // arrange
+
+        List<Map<String, Object>> rows = List.of(Map.of("orgTranslationShort", "TASA", "inactive", false));
+        when(projectionService.findAll(eq(UCSBOrganizations.class), eq(List.of("orgTranslationShort", "inactive")))).thenReturn(rows);
+
+        // act
+
+        MvcResult response = mockMvc.perform(get("/api/ucsborganizations/all?fields=orgTranslationShort,inactive"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_only_some_fields_by_id() throws Exception {
+
+        // arrange
+
+        Map<String, Object> row = Map.of("orgTranslationShort", "TASA");
+        when(projectionService.getById(eq(UCSBOrganizations.class), eq("tasa"), eq(List.of("orgTranslationShort")))).thenReturn(row);
+
+        // act
+
+        MvcResult response = mockMvc.perform(get("/api/ucsborganizations?orgCode=tasa&fields=orgTranslationShort"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+
+        assertEquals(mapper.writeValueAsString(row), response.getResponse().getContentAsString());
+    }
+}
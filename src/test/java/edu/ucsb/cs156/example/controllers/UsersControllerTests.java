@@ -21,6 +21,21 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import edu.ucsb.cs156.example.services.JsonStreamingService;
+import edu.ucsb.cs156.example.services.ProjectionService;
+import edu.ucsb.cs156.example.services.UserSearchService;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 
 @WebMvcTest(controllers = UsersController.class)
 @Import(TestConfig.class)
@@ -29,6 +44,15 @@ public class UsersControllerTests extends ControllerTestCase {
   @MockBean
   UserRepository userRepository;
 
+  @MockBean
+  JsonStreamingService jsonStreamingService;
+
+  @MockBean
+  ProjectionService projectionService;
+
+  @MockBean
+  UserSearchService userSearchService;
+
   @Test
   public void users__logged_out() throws Exception {
     mockMvc.perform(get("/api/admin/users"))
@@ -70,4 +94,144 @@ public class UsersControllerTests extends ControllerTestCase {
     assertEquals(expectedJson, responseString);
 
   }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users_stream__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users/stream"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users_stream__admin_logged_in() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).build();
+    User u2 = User.builder().id(2L).build();
+
+    when(userRepository.streamAll()).thenReturn(Stream.of(u1, u2));
+    when(jsonStreamingService.stream(any())).thenAnswer(invocation -> {
+      Supplier<Stream<User>> rows = invocation.getArgument(0);
+      List<User> streamed = rows.get().collect(Collectors.toList());
+      return (StreamingResponseBody) out -> out.write(mapper.writeValueAsBytes(streamed));
+    });
+    String expectedJson = mapper.writeValueAsString(Arrays.asList(u1, u2));
+
+    // act
+
+    MvcResult asyncResult = mockMvc.perform(get("/api/admin/users/stream"))
+        .andExpect(request().asyncStarted()).andReturn();
+    MvcResult response = mockMvc.perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(userRepository, times(1)).streamAll();
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__admin_can_get_cbor() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").build();
+    when(userRepository.findAll()).thenReturn(List.of(u1));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users").accept("application/cbor"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("application/cbor"))
+        .andReturn();
+
+    // assert
+
+    User[] users = new ObjectMapper(new CBORFactory())
+        .readValue(response.getResponse().getContentAsByteArray(), User[].class);
+    assertEquals(List.of(u1), List.of(users));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users__fields__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?fields=email"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__fields__admin_logged_in() throws Exception {
+
+    // arrange
+
+    List<Map<String, Object>> rows = List.of(Map.of("email", "cgaucho@ucsb.edu", "admin", true));
+    when(projectionService.findAll(eq(User.class), eq(List.of("email", "admin")))).thenReturn(rows);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?fields=email,admin"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    assertEquals(mapper.writeValueAsString(rows), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void users__page__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/users?limit=10"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__page__admin_gets_first_page_sorted_by_id() throws Exception {
+
+    // arrange
+
+    User u1 = User.builder().id(1L).email("cgaucho@ucsb.edu").fullName("Chris Gaucho").build();
+    User u2 = User.builder().id(2L).email("ldelplaya@ucsb.edu").fullName("Lauren Del Playa").build();
+    when(userSearchService.findPage(eq("id"), eq(null), eq(null), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(u1, u2));
+    when(userSearchService.cursorOf(eq("id"), eq(u1))).thenReturn("1");
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users?limit=1"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(new KeysetPage<>(List.of(u1), "1"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void users__page__admin_searches_sorted_by_email_after_a_cursor() throws Exception {
+
+    // arrange
+
+    User u2 = User.builder().id(2L).email("ldelplaya@ucsb.edu").fullName("Lauren Del Playa").build();
+    when(userSearchService.findPage(eq("email"), eq("l"), eq("cgaucho@ucsb.edu,1"), eq(PageRequest.of(0, 11))))
+        .thenReturn(List.of(u2));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/users")
+        .param("limit", "10").param("sort", "email").param("search", "l").param("after", "cgaucho@ucsb.edu,1"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(userSearchService, times(1)).findPage(eq("email"), eq("l"), eq("cgaucho@ucsb.edu,1"), eq(PageRequest.of(0, 11)));
+    String expectedJson = mapper.writeValueAsString(new KeysetPage<>(List.of(u2), null));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
 }
@@ -0,0 +1,86 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies per operation (e.g. "GET /api/restaurants/all") and overall, in
+ * microseconds, recorded from many threads. Printed as a summary table and
+ * written as HdrHistogram percentile distributions (.hgrm, in milliseconds)
+ * that can be plotted and compared between runs.
+ */
+class LatencyReport {
+
+  static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+  private final Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+  private final Map<String, LongAdder> errors = new ConcurrentSkipListMap<>();
+  private final Histogram total = histogram();
+
+  private static Histogram histogram() {
+    return new ConcurrentHistogram(HIGHEST_MICROS, 3);
+  }
+
+  void record(String operation, long micros, boolean ok) {
+    long value = Math.min(micros, HIGHEST_MICROS);
+    histograms.computeIfAbsent(operation, key -> histogram()).recordValue(value);
+    total.recordValue(value);
+    if (!ok) {
+      errors.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+  }
+
+  long errors() {
+    return errors.values().stream().mapToLong(LongAdder::sum).sum();
+  }
+
+  double p99Millis() {
+    return total.getValueAtPercentile(99) / 1000.0;
+  }
+
+  void print(PrintStream out, long seconds) {
+    out.printf("%-50s %8s %7s %9s %9s %9s %9s %9s%n",
+        "operation", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+    histograms.forEach((operation, histogram) -> print(out, operation, histogram,
+        errors.getOrDefault(operation, new LongAdder()).sum(), seconds));
+    print(out, "total", total, errors(), seconds);
+  }
+
+  private static void print(PrintStream out, String operation, Histogram histogram, long errors, long seconds) {
+    out.printf("%-50s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+        operation,
+        histogram.getTotalCount(),
+        errors,
+        (double) histogram.getTotalCount() / seconds,
+        histogram.getValueAtPercentile(50) / 1000.0,
+        histogram.getValueAtPercentile(90) / 1000.0,
+        histogram.getValueAtPercentile(99) / 1000.0,
+        histogram.getMaxValue() / 1000.0);
+  }
+
+  void write(Path directory, long seconds) throws IOException {
+    Files.createDirectories(directory);
+    for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+      write(directory.resolve(entry.getKey().replaceAll("[^A-Za-z0-9]+", "_") + ".hgrm"), entry.getValue());
+    }
+    write(directory.resolve("total.hgrm"), total);
+    try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("summary.txt")))) {
+      print(out, seconds);
+    }
+  }
+
+  private static void write(Path file, Histogram histogram) throws IOException {
+    try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+      histogram.outputPercentileDistribution(out, 1000.0);
+    }
+  }
+}
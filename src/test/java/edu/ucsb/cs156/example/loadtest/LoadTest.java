@@ -0,0 +1,291 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.ExampleApplication;
+
+/**
+ * Throughput and latency of the CRUD endpoints through the whole HTTP stack:
+ * Tomcat, the security filter chain (sessions, CSRF), controllers, services,
+ * caches and Hibernate against H2. Only runs with mvn -P loadtest test.
+ *
+ * Each worker logs in as the stub admin (see LoadTestConfig) and, until the
+ * time is up, picks one of the resources at random and either reads it (the
+ * /all list or a seeded row by key) or, with probability writeRatio, posts,
+ * updates or deletes one of its own rows. Requests made during the warmup
+ * are not recorded. Any 4xx/5xx response fails the test, as does an overall
+ * p99 above loadtest.maxP99Millis when that is set.
+ *
+ * Settings (system properties, e.g. -Dloadtest.concurrency=32):
+ * concurrency (16), durationSeconds (30), warmupSeconds (5), writeRatio
+ * (0.1), rows seeded per resource (200), maxP99Millis (unset).
+ */
+@Tag("loadtest")
+@ActiveProfiles("loadtest")
+@SpringBootTest(classes = ExampleApplication.class, webEnvironment = WebEnvironment.RANDOM_PORT)
+@Import(LoadTestConfig.class)
+class LoadTest {
+
+  static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 16);
+  static final long DURATION_SECONDS = Long.getLong("loadtest.durationSeconds", 30);
+  static final long WARMUP_SECONDS = Long.getLong("loadtest.warmupSeconds", 5);
+  static final double WRITE_RATIO = Double.parseDouble(System.getProperty("loadtest.writeRatio", "0.1"));
+  static final int ROWS = Integer.getInteger("loadtest.rows", 200);
+  static final String MAX_P99_MILLIS = System.getProperty("loadtest.maxP99Millis");
+
+  static final String ADMIN_EMAIL = "loadtest@ucsb.edu";
+  static final String CSRF_TOKEN = "loadtest";
+
+  /**
+   * One of the CRUD controllers: its base path, the name of its key (both
+   * the request parameter and the JSON property), and the parameters of a
+   * new row and the body of an update for a given unique name.
+   */
+  record Resource(String path, String key,
+      Function<String, Map<String, String>> post, Function<String, Map<String, Object>> put) {
+  }
+
+  static final List<Resource> RESOURCES = List.of(
+      new Resource("/api/restaurants", "id",
+          name -> Map.of("name", name, "description", "Load test restaurant"),
+          name -> Map.of("name", name, "description", "Updated")),
+      new Resource("/api/ucsbdates", "id",
+          name -> Map.of("quarterYYYYQ", "20224", "name", name, "localDateTime", "2022-09-22T00:00:00"),
+          name -> Map.of("quarterYYYYQ", "20231", "name", name, "localDateTime", "2023-01-09T00:00:00")),
+      new Resource("/api/ucsbdiningcommons", "code",
+          name -> Map.of("code", name, "name", name, "hasSackMeal", "true", "hasTakeOutMeal", "false",
+              "hasDiningCam", "true", "latitude", "34.409953", "longitude", "-119.85277"),
+          name -> Map.of("name", name, "hasSackMeal", false, "hasTakeOutMeal", true,
+              "hasDiningCam", false, "latitude", 34.41, "longitude", -119.84)),
+      new Resource("/api/ucsbdiningcommonsmenuitem", "id",
+          name -> Map.of("diningCommonsCode", "ortega", "name", name, "station", "Entrees"),
+          name -> Map.of("diningCommonsCode", "ortega", "name", name, "station", "Desserts")),
+      new Resource("/api/ucsborganizations", "orgCode",
+          name -> Map.of("orgCode", name, "orgTranslationShort", name, "orgTranslation", "Load test organization",
+              "inactive", "false"),
+          name -> Map.of("orgTranslationShort", name, "orgTranslation", "Updated", "inactive", true)));
+
+  @LocalServerPort
+  int port;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  final HttpClient http = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(Duration.ofSeconds(10))
+      .build();
+
+  /**
+   * A logged-in browser: the session cookie plus a CSRF token that it sends
+   * back both as the XSRF-TOKEN cookie and the X-XSRF-TOKEN header, as the
+   * frontend does.
+   */
+  class Session {
+    final String cookie;
+
+    Session(String email) throws IOException, InterruptedException {
+      HttpRequest login = HttpRequest.newBuilder(uri(LoadTestConfig.LOGIN_PATH, Map.of("email", email))).build();
+      HttpResponse<Void> response = http.send(login, BodyHandlers.discarding());
+      assertEquals(204, response.statusCode());
+      String session = response.headers().firstValue("Set-Cookie").orElseThrow().split(";", 2)[0];
+      cookie = session + "; XSRF-TOKEN=" + CSRF_TOKEN;
+    }
+
+    HttpResponse<String> send(String method, URI uri, String json) throws IOException, InterruptedException {
+      HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+          .timeout(Duration.ofSeconds(30))
+          .header("Cookie", cookie)
+          .header("X-XSRF-TOKEN", CSRF_TOKEN)
+          .header("Accept", "application/json");
+      if (json != null) {
+        request.header("Content-Type", "application/json").method(method, BodyPublishers.ofString(json));
+      } else {
+        request.method(method, BodyPublishers.noBody());
+      }
+      return http.send(request.build(), BodyHandlers.ofString());
+    }
+  }
+
+  URI uri(String path, Map<String, ?> params) {
+    String query = params.entrySet().stream()
+        .map(e -> e.getKey() + "=" + URLEncoder.encode(String.valueOf(e.getValue()), StandardCharsets.UTF_8))
+        .collect(Collectors.joining("&"));
+    return URI.create("http://localhost:%d%s%s".formatted(port, path, query.isEmpty() ? "" : "?" + query));
+  }
+
+  String create(Session session, Resource resource, String name) throws IOException, InterruptedException {
+    HttpResponse<String> response = session.send("POST", uri(resource.path() + "/post", resource.post().apply(name)), null);
+    assertEquals(200, response.statusCode(), response.body());
+    return mapper.readTree(response.body()).get(resource.key()).asText();
+  }
+
+  /**
+   * One worker's view of the run: the rows it created and may still update
+   * or delete, per resource.
+   */
+  class Worker {
+    final int number;
+    final Session session;
+    final Map<Resource, Deque<String>> own = new HashMap<>();
+    final Map<Resource, List<String>> seeded;
+    int created;
+
+    Worker(int number, Map<Resource, List<String>> seeded) throws IOException, InterruptedException {
+      this.number = number;
+      this.seeded = seeded;
+      session = new Session(ADMIN_EMAIL);
+      RESOURCES.forEach(resource -> own.put(resource, new ArrayDeque<>()));
+    }
+
+    void run(LatencyReport report, long warmupEnd, long end) throws InterruptedException {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      while (System.nanoTime() < end) {
+        Resource resource = RESOURCES.get(random.nextInt(RESOURCES.size()));
+        Deque<String> mine = own.get(resource);
+        String operation;
+        String method;
+        URI uri;
+        String json = null;
+        String name = "lt-%d-%d".formatted(number, created);
+
+        if (random.nextDouble() >= WRITE_RATIO) {
+          if (random.nextDouble() < 0.3) {
+            operation = "GET " + resource.path() + "/all";
+            method = "GET";
+            uri = uri(resource.path() + "/all", Map.of());
+          } else {
+            List<String> keys = seeded.get(resource);
+            operation = "GET " + resource.path();
+            method = "GET";
+            uri = uri(resource.path(), Map.of(resource.key(), keys.get(random.nextInt(keys.size()))));
+          }
+        } else if (mine.isEmpty() || random.nextDouble() < 0.4) {
+          operation = "POST " + resource.path() + "/post";
+          method = "POST";
+          uri = uri(resource.path() + "/post", resource.post().apply(name));
+          created++;
+        } else if (random.nextBoolean()) {
+          operation = "PUT " + resource.path();
+          method = "PUT";
+          uri = uri(resource.path(), Map.of(resource.key(), mine.peekLast()));
+          json = toJson(resource.put().apply(name));
+        } else {
+          operation = "DELETE " + resource.path();
+          method = "DELETE";
+          uri = uri(resource.path(), Map.of(resource.key(), mine.pollFirst()));
+        }
+
+        long start = System.nanoTime();
+        boolean ok;
+        try {
+          HttpResponse<String> response = session.send(method, uri, json);
+          ok = response.statusCode() < 400;
+          if (ok && method.equals("POST")) {
+            mine.addLast(mapper.readTree(response.body()).get(resource.key()).asText());
+          }
+        } catch (IOException e) {
+          ok = false;
+        }
+        long finish = System.nanoTime();
+        if (start >= warmupEnd) {
+          report.record(operation, TimeUnit.NANOSECONDS.toMicros(finish - start), ok);
+        }
+      }
+    }
+
+    private String toJson(Map<String, Object> body) {
+      try {
+        return mapper.writeValueAsString(body);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  @Test
+  void crud_endpoints_under_mixed_load() throws Exception {
+    Session admin = new Session(ADMIN_EMAIL);
+    Map<Resource, List<String>> seeded = new HashMap<>();
+    for (Resource resource : RESOURCES) {
+      List<String> keys = new ArrayList<>();
+      for (int i = 0; i < ROWS; i++) {
+        keys.add(create(admin, resource, "seed-" + i));
+      }
+      seeded.put(resource, keys);
+    }
+
+    List<Worker> workers = new ArrayList<>();
+    for (int i = 0; i < CONCURRENCY; i++) {
+      workers.add(new Worker(i, seeded));
+    }
+
+    LatencyReport report = new LatencyReport();
+    long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+    long end = warmupEnd + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+    ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+    try {
+      List<Future<?>> running = new ArrayList<>();
+      for (Worker worker : workers) {
+        running.add(executor.submit(() -> {
+          worker.run(report, warmupEnd, end);
+          return null;
+        }));
+      }
+      for (Future<?> future : running) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    System.out.printf("%n%d workers, %d s (after %d s warmup), write ratio %.2f, %d rows per resource%n",
+        CONCURRENCY, DURATION_SECONDS, WARMUP_SECONDS, WRITE_RATIO, ROWS);
+    report.print(System.out, DURATION_SECONDS);
+    report.write(Path.of("target", "loadtest"), DURATION_SECONDS);
+
+    assertEquals(0, report.errors(), "requests that failed");
+    if (MAX_P99_MILLIS != null) {
+      double p99 = report.p99Millis();
+      assertTrue(p99 <= Double.parseDouble(MAX_P99_MILLIS),
+          "p99 of %.2f ms is over loadtest.maxP99Millis=%s".formatted(p99, MAX_P99_MILLIS));
+    }
+  }
+}
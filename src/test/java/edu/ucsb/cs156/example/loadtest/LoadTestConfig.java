@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.Filter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.security.web.context.HttpSessionSecurityContextRepository;
+
+import edu.ucsb.cs156.example.services.CurrentUserServiceImpl;
+
+/**
+ * Stub OAuth login for the load test. GET /loadtest/login?email=... puts
+ * the OAuth2AuthenticationToken that a Google login would have produced into
+ * a new session, with the roles SecurityConfig's userAuthoritiesMapper would
+ * give it (loading or creating the user as a login does), and answers 204. The session cookie then authenticates the
+ * requests that follow through the real security filter chain, CSRF included.
+ */
+@TestConfiguration
+public class LoadTestConfig {
+
+  public static final String LOGIN_PATH = "/loadtest/login";
+
+  @Bean
+  public FilterRegistrationBean<Filter> loadTestLoginFilter(CurrentUserServiceImpl currentUserService) {
+    Filter filter = (request, response, chain) -> {
+      String email = request.getParameter("email");
+      Map<String, Object> attributes = Map.of(
+          "sub", "loadtest_" + email,
+          "email", email,
+          "email_verified", true,
+          "name", "Load Test " + email,
+          "given_name", "Load",
+          "family_name", "Test",
+          "picture", "https://example.org/loadtest.jpg",
+          "locale", "en",
+          "hd", "ucsb.edu");
+
+      List<GrantedAuthority> authorities = new ArrayList<>();
+      authorities.add(new OAuth2UserAuthority(attributes));
+      if (currentUserService.loginUser(attributes).getAdmin()) {
+        authorities.add(new SimpleGrantedAuthority("ROLE_ADMIN"));
+      }
+      if (email.endsWith("@ucsb.edu")) {
+        authorities.add(new SimpleGrantedAuthority("ROLE_MEMBER"));
+      }
+
+      DefaultOAuth2User principal = new DefaultOAuth2User(authorities, attributes, "email");
+      SecurityContext context = new SecurityContextImpl(new OAuth2AuthenticationToken(principal, authorities, "google"));
+      ((HttpServletRequest) request).getSession(true)
+          .setAttribute(HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY, context);
+      ((HttpServletResponse) response).setStatus(HttpServletResponse.SC_NO_CONTENT);
+    };
+
+    FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns(LOGIN_PATH);
+    // ahead of springSecurityFilterChain, so the login itself needs no session or CSRF token
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    return registration;
+  }
+}
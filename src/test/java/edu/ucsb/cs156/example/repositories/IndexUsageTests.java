@@ -0,0 +1,58 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks (with H2's EXPLAIN) that the lookups our repositories run are
+ * served by the indexes created in V6__Add_indexes.sql rather than by a
+ * table scan.
+ */
+@DataJpaTest
+class IndexUsageTests {
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  private String explain(String sql) {
+    return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+  }
+
+  @Test
+  void find_user_by_email_uses_index() {
+    String plan = explain("SELECT * FROM users WHERE email = 'phtcon@ucsb.edu'");
+    assertFalse(plan.contains("tableScan"), plan);
+  }
+
+  @Test
+  void user_email_is_unique() {
+    jdbcTemplate.update("INSERT INTO users (email, email_verified, admin) VALUES ('cgaucho@ucsb.edu', true, false)");
+    assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate
+        .update("INSERT INTO users (email, email_verified, admin) VALUES ('cgaucho@ucsb.edu', true, false)"));
+  }
+
+  @Test
+  void find_dates_by_quarter_uses_index() {
+    String plan = explain("SELECT * FROM ucsbdates WHERE quarteryyyyq = '20222'");
+    assertFalse(plan.contains("tableScan"), plan);
+  }
+
+  @Test
+  void find_menu_items_by_commons_and_station_uses_index() {
+    String plan = explain(
+        "SELECT * FROM ucsbdiningcommonsmenuitem WHERE dining_commons_code = 'ortega' AND station = 'Entree Specials'");
+    assertFalse(plan.contains("tableScan"), plan);
+  }
+
+  @Test
+  void find_menu_items_by_commons_uses_index() {
+    String plan = explain("SELECT * FROM ucsbdiningcommonsmenuitem WHERE dining_commons_code = 'ortega'");
+    assertFalse(plan.contains("tableScan"), plan);
+  }
+}
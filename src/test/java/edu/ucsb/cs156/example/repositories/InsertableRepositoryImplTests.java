@@ -0,0 +1,66 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+import javax.persistence.PersistenceUnitUtil;
+
+import org.hibernate.PersistentObjectException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+
+class InsertableRepositoryImplTests {
+
+  EntityManager entityManager = mock(EntityManager.class);
+  Cache cache = mock(Cache.class);
+  InsertableRepositoryImpl<UCSBOrganizations> insertableRepository = new InsertableRepositoryImpl<>();
+
+  UCSBOrganizations krc = UCSBOrganizations.builder().orgCode("krc").build();
+
+  @BeforeEach
+  void setUp() {
+    EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+    when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+    when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+    when(entityManagerFactory.getCache()).thenReturn(cache);
+    when(persistenceUnitUtil.getIdentifier(krc)).thenReturn("krc");
+    insertableRepository.entityManager = entityManager;
+  }
+
+  @Test
+  void insert_evicts_the_id_from_the_second_level_cache_first() {
+    assertSame(krc, insertableRepository.insert(krc));
+    verify(cache).evict(UCSBOrganizations.class, "krc");
+    verify(entityManager).persist(krc);
+  }
+
+  @Test
+  void a_row_cached_again_by_a_concurrent_read_is_reported_as_existing() {
+    doThrow(new PersistenceException(new PersistentObjectException("detached entity passed to persist")))
+        .when(entityManager).persist(krc);
+    assertThrows(DuplicateKeyException.class, () -> insertableRepository.insert(krc));
+
+    doThrow(new PersistentObjectException("detached entity passed to persist"))
+        .when(entityManager).persist(krc);
+    assertThrows(DuplicateKeyException.class, () -> insertableRepository.insert(krc));
+  }
+
+  @Test
+  void other_persistence_errors_are_rethrown() {
+    PersistenceException error = new PersistenceException("connection lost");
+    doThrow(error).when(entityManager).persist(krc);
+    assertSame(error, assertThrows(PersistenceException.class, () -> insertableRepository.insert(krc)));
+  }
+}
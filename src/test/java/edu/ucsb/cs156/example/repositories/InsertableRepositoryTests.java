@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InsertableRepositoryTests {
+
+  @Autowired
+  UCSBOrganizationsRepository ucsbOrganizationsRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @Test
+  void insert_creates_a_new_row_and_rejects_a_duplicate_key() {
+    UCSBOrganizations krc = UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("koreanRadioCl")
+        .orgTranslation("koreanRadioClub")
+        .inactive(true)
+        .build();
+
+    ucsbOrganizationsRepository.insert(krc);
+    assertEquals(krc, ucsbOrganizationsRepository.findById("krc").get());
+
+    UCSBOrganizations duplicate = UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("other")
+        .orgTranslation("other")
+        .inactive(false)
+        .build();
+
+    assertThrows(DuplicateKeyException.class, () -> ucsbOrganizationsRepository.insert(duplicate));
+    assertEquals(krc, ucsbOrganizationsRepository.findById("krc").get());
+
+    ucsbOrganizationsRepository.deleteById("krc");
+  }
+
+  @Test
+  void insert_rejects_a_duplicate_of_a_row_in_the_second_level_cache() {
+    UCSBOrganizations krc = UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("koreanRadioCl")
+        .orgTranslation("koreanRadioClub")
+        .inactive(true)
+        .build();
+    ucsbOrganizationsRepository.insert(krc);
+    ucsbOrganizationsRepository.findAll();
+    ucsbOrganizationsRepository.findById("krc");
+    assertTrue(entityManagerFactory.getCache().contains(UCSBOrganizations.class, "krc"));
+
+    UCSBOrganizations duplicate = UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("other")
+        .orgTranslation("other")
+        .inactive(false)
+        .build();
+
+    assertThrows(DuplicateKeyException.class, () -> ucsbOrganizationsRepository.insert(duplicate));
+    assertEquals(krc, ucsbOrganizationsRepository.findById("krc").get());
+
+    ucsbOrganizationsRepository.deleteById("krc");
+  }
+
+  @Test
+  void insert_reports_other_constraint_violations_as_they_are() {
+    UCSBOrganizations tooLong = UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("k".repeat(300))
+        .orgTranslation("koreanRadioClub")
+        .inactive(true)
+        .build();
+
+    DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+        () -> ucsbOrganizationsRepository.insert(tooLong));
+    assertFalse(e instanceof DuplicateKeyException);
+    assertTrue(ucsbOrganizationsRepository.findById("krc").isEmpty());
+  }
+}
@@ -0,0 +1,42 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Runs the migrations up to V4 on an empty H2 database, adds menu items and
+ * the id sequence the way ddl-auto=update would have created it (at 1), and
+ * checks that V5 moves the sequence so Hibernate's first block of 50 ids
+ * starts after the existing rows.
+ */
+class MenuItemSequenceMigrationTests {
+
+  DriverManagerDataSource dataSource = new DriverManagerDataSource(
+      "jdbc:h2:mem:menuitemsequence;DB_CLOSE_DELAY=-1", "sa", "");
+  JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+  private Flyway flyway(String target) {
+    return Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+        .target(target)
+        .load();
+  }
+
+  @Test
+  void the_sequence_is_moved_past_existing_menu_items() {
+    flyway("4").migrate();
+    jdbcTemplate.update("INSERT INTO ucsbdiningcommonsmenuitem (id, name) VALUES (7, 'Tacos'), (120, 'Pizza')");
+    jdbcTemplate.update("CREATE SEQUENCE ucsbdiningcommonsmenuitem_seq START WITH 1 INCREMENT BY 50");
+
+    flyway("latest").migrate();
+
+    long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR ucsbdiningcommonsmenuitem_seq", Long.class);
+    // the pooled optimizer uses next - 49 .. next
+    assertEquals(121, next - 49);
+  }
+}
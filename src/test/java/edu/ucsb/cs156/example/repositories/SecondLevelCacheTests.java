@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+
+// Not transactional, so that each repository call commits and the cache is
+// populated and invalidated exactly as it is between requests.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = { "spring.jpa.properties.hibernate.generate_statistics=true" })
+class SecondLevelCacheTests {
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  UCSBOrganizationsRepository ucsbOrganizationsRepository;
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+  }
+
+  @AfterEach
+  void tearDown() {
+    restaurantRepository.deleteAll();
+    ucsbOrganizationsRepository.deleteAll();
+  }
+
+  @Test
+  void repeated_restaurant_reads_issue_no_sql() {
+    Restaurant chipotle = restaurantRepository.save(Restaurant.builder().name("Chipotle").description("Mexican").build());
+    restaurantRepository.save(Restaurant.builder().name("Freebirds").description("Burritos").build());
+
+    // first findAll fills the query cache
+    restaurantRepository.findAll();
+    statistics.clear();
+
+    List<Restaurant> all = (List<Restaurant>) restaurantRepository.findAll();
+    restaurantRepository.findAll();
+    Restaurant found = restaurantRepository.findById(chipotle.getId()).get();
+
+    assertEquals(2, all.size());
+    assertEquals(chipotle, found);
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(2, statistics.getQueryCacheHitCount());
+    assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+    assertEquals(0, statistics.getSecondLevelCacheMissCount());
+  }
+
+  @Test
+  void repeated_organization_reads_issue_no_sql() {
+    UCSBOrganizations krc = ucsbOrganizationsRepository.insert(UCSBOrganizations.builder()
+        .orgCode("krc")
+        .orgTranslationShort("koreanRadioCl")
+        .orgTranslation("koreanRadioClub")
+        .inactive(true)
+        .build());
+
+    ucsbOrganizationsRepository.findAll();
+    statistics.clear();
+
+    List<UCSBOrganizations> all = (List<UCSBOrganizations>) ucsbOrganizationsRepository.findAll();
+    UCSBOrganizations found = ucsbOrganizationsRepository.findById("krc").get();
+
+    assertEquals(List.of(krc), all);
+    assertEquals(krc, found);
+    assertEquals(0, statistics.getPrepareStatementCount());
+    assertEquals(1, statistics.getQueryCacheHitCount());
+  }
+
+  @Test
+  void bulk_update_invalidates_cached_restaurants() {
+    Restaurant chipotle = restaurantRepository.save(Restaurant.builder().name("Chipotle").description("Mexican").build());
+    restaurantRepository.findAll();
+    restaurantRepository.findById(chipotle.getId());
+
+    Restaurant edited = Restaurant.builder().name("Chipotle Mexican Grill").description("Burritos").build();
+    restaurantRepository.updateById(chipotle.getId(), edited);
+    statistics.clear();
+
+    List<Restaurant> all = (List<Restaurant>) restaurantRepository.findAll();
+
+    assertEquals("Chipotle Mexican Grill", all.get(0).getName());
+    assertEquals(0, statistics.getQueryCacheHitCount());
+    assertTrue(statistics.getPrepareStatementCount() > 0);
+  }
+}
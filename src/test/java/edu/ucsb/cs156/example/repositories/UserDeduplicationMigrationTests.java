@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Runs the migrations up to V5 on an empty H2 database, adds duplicate users
+ * the way an old database might have them, and checks that the rest of the
+ * migrations (V5_1 removing the duplicates, V6 adding the unique constraint)
+ * go through.
+ */
+class UserDeduplicationMigrationTests {
+
+  DriverManagerDataSource dataSource = new DriverManagerDataSource(
+      "jdbc:h2:mem:deduplication;DB_CLOSE_DELAY=-1", "sa", "");
+  JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+  private Flyway flyway(String target) {
+    return Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration/common", "classpath:db/migration/h2")
+        .target(target)
+        .load();
+  }
+
+  private void user(String email, boolean admin) {
+    jdbcTemplate.update("INSERT INTO users (email, email_verified, admin) VALUES (?, true, ?)", email, admin);
+  }
+
+  @Test
+  void duplicate_emails_are_merged_into_the_oldest_row_before_the_unique_constraint() {
+    flyway("5").migrate();
+    user("cgaucho@ucsb.edu", false);
+    user("ldelplaya@ucsb.edu", false);
+    user("cgaucho@ucsb.edu", true);
+    user("cgaucho@ucsb.edu", false);
+    user(null, false);
+    user(null, false);
+
+    flyway("latest").migrate();
+
+    List<Map<String, Object>> users = jdbcTemplate.queryForList("SELECT id, email, admin FROM users ORDER BY id");
+    assertEquals(List.of(
+        Map.of("ID", 1L, "EMAIL", "cgaucho@ucsb.edu", "ADMIN", true),
+        Map.of("ID", 2L, "EMAIL", "ldelplaya@ucsb.edu", "ADMIN", false)),
+        users.subList(0, 2));
+    assertEquals(4, users.size());
+  }
+}
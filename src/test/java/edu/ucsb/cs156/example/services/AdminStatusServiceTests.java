@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@Import(TestConfig.class)
+@ContextConfiguration
+@TestPropertySource(properties = { "app.admin.emails=admin@ucsb.edu" })
+class AdminStatusServiceTests {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  AdminStatusService adminStatusService;
+
+  @Test
+  void test_only_configured_emails_are_admin_emails() {
+    assertTrue(adminStatusService.isAdminEmail("admin@ucsb.edu"));
+    assertFalse(adminStatusService.isAdminEmail("dbadmin@ucsb.edu"));
+  }
+
+}
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class AfterCommitTests {
+
+  @Test
+  void runs_immediately_outside_a_transaction() {
+    AtomicInteger runs = new AtomicInteger();
+    AfterCommit.run(runs::incrementAndGet);
+    assertEquals(1, runs.get());
+  }
+
+  @Test
+  void waits_for_commit_inside_a_transaction() {
+    AtomicInteger runs = new AtomicInteger();
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      AfterCommit.run(runs::incrementAndGet);
+      assertEquals(0, runs.get());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      assertEquals(1, runs.get());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+class CurrentUserServiceImplTests {
+
+  UserRepository userRepository = mock(UserRepository.class);
+  AdminStatusService adminStatusService = mock(AdminStatusService.class);
+  CurrentUserServiceImpl currentUserService = new CurrentUserServiceImpl();
+
+  Map<String, Object> attributes = Map.of("email", "cgaucho@ucsb.edu", "sub", "1234", "email_verified", true);
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(currentUserService, "userRepository", userRepository);
+    ReflectionTestUtils.setField(currentUserService, "adminStatusService", adminStatusService);
+    ReflectionTestUtils.setField(currentUserService, "cacheMaximumSize", 100L);
+    ReflectionTestUtils.setField(currentUserService, "cacheTtlSeconds", 300L);
+    currentUserService.initUserCache();
+
+    OAuth2UserAuthority authority = new OAuth2UserAuthority(attributes);
+    SecurityContextHolder.getContext().setAuthentication(new OAuth2AuthenticationToken(
+        new DefaultOAuth2User(List.of(authority), attributes, "email"), List.of(authority), "google"));
+
+    when(userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("cgaucho@ucsb.edu").admin(false).build()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void a_login_reloads_the_cached_user() {
+    currentUserService.getUser();
+    currentUserService.getUser();
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+
+    when(userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("cgaucho@ucsb.edu").admin(true).build()));
+    assertEquals(true, currentUserService.loginUser(attributes).getAdmin());
+
+    assertEquals(true, currentUserService.getUser().getAdmin());
+    verify(userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void the_login_lookup_serves_the_requests_that_follow() {
+    currentUserService.loginUser(attributes);
+    currentUserService.getUser();
+
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void a_first_login_creates_the_user_with_the_configured_admin_flag() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+    when(adminStatusService.isAdminEmail("cgaucho@ucsb.edu")).thenReturn(true);
+
+    User user = currentUserService.loginUser(attributes);
+
+    assertEquals(true, user.getAdmin());
+    verify(userRepository).save(user);
+  }
+
+  @Test
+  void a_configured_admin_email_sets_the_stored_flag() {
+    when(adminStatusService.isAdminEmail("cgaucho@ucsb.edu")).thenReturn(true);
+
+    User user = currentUserService.loginUser(attributes);
+
+    assertEquals(true, user.getAdmin());
+    verify(userRepository).save(user);
+  }
+
+  @Test
+  void an_unchanged_user_is_not_saved() {
+    currentUserService.loginUser(attributes);
+
+    verify(userRepository, never()).save(any());
+  }
+}
@@ -0,0 +1,84 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { JsonStreamingService.class, QueryStatsService.class, JacksonAutoConfiguration.class })
+@TestPropertySource(properties = { "app.streaming.flushEvery=2" })
+class JsonStreamingServiceTests {
+
+  @MockBean
+  EntityManager entityManager;
+
+  @MockBean
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  JsonStreamingService jsonStreamingService;
+
+  @Test
+  void test_stream_writes_json_array_and_detaches_each_row() throws Exception {
+    // arrange
+    Restaurant r1 = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+    Restaurant r2 = Restaurant.builder().id(2L).name("Woodstocks").description("Pizza").build();
+    Restaurant r3 = Restaurant.builder().id(3L).name("Blenders").description("Smoothies").build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    // act
+    jsonStreamingService.stream(() -> Stream.of(r1, r2, r3)).writeTo(out);
+
+    // assert
+    assertEquals(mapper.writeValueAsString(Arrays.asList(r1, r2, r3)), out.toString());
+    verify(entityManager, times(3)).detach(any());
+    verify(transactionManager, times(1)).getTransaction(argThat(definition -> definition.isReadOnly()));
+    verify(transactionManager, times(1)).commit(any());
+  }
+
+  @Test
+  void test_stream_rolls_back_when_the_client_goes_away() {
+    // arrange
+    Restaurant r1 = Restaurant.builder().id(1L).name("Freebirds").description("Burritos").build();
+    OutputStream brokenPipe = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Broken pipe");
+      }
+    };
+
+    // act and assert
+    assertThrows(UncheckedIOException.class,
+        () -> jsonStreamingService.stream(() -> Stream.of(r1, r1, r1)).writeTo(brokenPipe));
+    verify(transactionManager, times(1)).rollback(any());
+  }
+}
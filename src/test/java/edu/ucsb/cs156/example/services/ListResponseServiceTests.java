@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ListResponseServiceTests {
+
+  static final MediaType JSON = MediaType.APPLICATION_JSON;
+  static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+  static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+  ListResponseService listResponseService = new ListResponseService();
+
+  AtomicInteger loads = new AtomicInteger();
+
+  Supplier<List<String>> rows = () -> {
+    loads.incrementAndGet();
+    return List.of("a", "b");
+  };
+
+  SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @BeforeEach
+  void setUp() {
+    listResponseService.mapper = new ObjectMapper();
+    listResponseService.meterRegistry = meterRegistry;
+    listResponseService.tableVersionService = new TableVersionService();
+    listResponseService.tableVersionService.meterRegistry = meterRegistry;
+    listResponseService.httpMessageConverters = new HttpMessageConverters(false, List.of(
+        new StringHttpMessageConverter(),
+        new MappingJackson2HttpMessageConverter(),
+        new MappingJackson2SmileHttpMessageConverter(),
+        new MappingJackson2CborHttpMessageConverter()));
+    listResponseService.initFormats();
+  }
+
+  private static String gunzip(byte[] body) throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
+
+  @Test
+  void serializes_the_rows() {
+    byte[] body = listResponseService.list(String.class, rows, JSON, false);
+    assertEquals("[\"a\",\"b\"]", new String(body, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void gzipped_body_decompresses_to_the_json() throws IOException {
+    byte[] body = listResponseService.list(String.class, rows, JSON, true);
+    assertEquals("[\"a\",\"b\"]", gunzip(body));
+  }
+
+  @Test
+  void bytes_are_reused_until_the_table_changes() {
+    byte[] first = listResponseService.list(String.class, rows, JSON, false);
+    byte[] second = listResponseService.list(String.class, rows, JSON, false);
+    listResponseService.list(String.class, rows, JSON, true);
+
+    assertSame(first, second);
+    assertEquals(1, loads.get());
+
+    listResponseService.tableVersionService.bump(String.class);
+    byte[] third = listResponseService.list(String.class, rows, JSON, false);
+
+    assertArrayEquals(first, third);
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void clear_forces_a_rebuild() {
+    listResponseService.list(String.class, rows, JSON, false);
+    listResponseService.clear();
+    listResponseService.list(String.class, rows, JSON, false);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void with_the_cache_disabled_every_call_rebuilds() {
+    listResponseService.cacheEnabled = false;
+
+    listResponseService.list(String.class, rows, JSON, false);
+    listResponseService.list(String.class, rows, JSON, false);
+
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void gzip_honours_q_values_and_wildcards() {
+    assertTrue(listResponseService.gzip("deflate, GZIP;q=0.5"));
+    assertTrue(listResponseService.gzip("x-gzip"));
+    assertTrue(listResponseService.gzip("br, *"));
+    assertTrue(listResponseService.gzip("gzip;level=9; q=1.0"));
+    assertFalse(listResponseService.gzip("gzip;q=0"));
+    assertFalse(listResponseService.gzip("gzip; Q=0.000, *;q=1"));
+    assertFalse(listResponseService.gzip("br, *;q=0"));
+    assertFalse(listResponseService.gzip("gzip;q=high"));
+    assertFalse(listResponseService.gzip("gzipped, not-gzip"));
+  }
+
+  @Test
+  void gzip_follows_accept_encoding_and_the_setting() {
+    assertTrue(listResponseService.gzip("gzip, deflate, br"));
+    assertFalse(listResponseService.gzip("br"));
+    assertFalse(listResponseService.gzip(null));
+
+    listResponseService.gzipEnabled = false;
+    assertFalse(listResponseService.gzip("gzip"));
+    byte[] body = listResponseService.list(String.class, rows, JSON, false);
+    assertEquals("[\"a\",\"b\"]", new String(body, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void each_format_and_encoding_has_its_own_etag() {
+    Set<String> etags = Set.of(
+        listResponseService.etag(String.class, JSON, false),
+        listResponseService.etag(String.class, JSON, true),
+        listResponseService.etag(String.class, SMILE, false),
+        listResponseService.etag(String.class, SMILE, true));
+    assertEquals(4, etags.size());
+  }
+
+  @Test
+  void format_is_json_unless_another_format_is_preferred() {
+    assertEquals(JSON, listResponseService.format(null));
+    assertEquals(JSON, listResponseService.format("*/*"));
+    assertEquals(JSON, listResponseService.format("application/json, text/plain, */*"));
+    assertEquals(JSON, listResponseService.format("text/html"));
+    assertEquals(SMILE, listResponseService.format("application/x-jackson-smile"));
+    assertEquals(CBOR, listResponseService.format("application/cbor, application/json;q=0.5"));
+    assertEquals(JSON, listResponseService.format("application/cbor;q=0"));
+  }
+
+  @Test
+  void binary_formats_round_trip() throws IOException {
+    byte[] smile = listResponseService.list(String.class, rows, SMILE, false);
+    byte[] cbor = listResponseService.list(String.class, rows, CBOR, false);
+
+    assertEquals(List.of("a", "b"), new ObjectMapper(new SmileFactory()).readValue(smile, List.class));
+    assertEquals(List.of("a", "b"), new ObjectMapper(new CBORFactory()).readValue(cbor, List.class));
+    assertEquals(2, loads.get());
+  }
+
+  @Test
+  void rows_that_cannot_be_serialized_are_an_illegal_state() {
+    assertThrows(IllegalStateException.class, () -> listResponseService.list(Object.class, Object::new, JSON, false));
+  }
+
+  @Test
+  void hits_misses_body_sizes_and_writes_are_counted() {
+    listResponseService.list(String.class, rows, JSON, false);
+    listResponseService.list(String.class, rows, JSON, true);
+    listResponseService.tableVersionService.bump(String.class);
+    listResponseService.list(String.class, rows, SMILE, false);
+
+    assertEquals(1.0, meterRegistry.get("app.list.responses")
+        .tags("table", "String", "format", "json", "cache", "miss").counter().count());
+    assertEquals(1.0, meterRegistry.get("app.list.responses")
+        .tags("table", "String", "format", "json", "cache", "hit").counter().count());
+    assertEquals(1.0, meterRegistry.get("app.list.responses")
+        .tags("table", "String", "format", "x-jackson-smile", "cache", "miss").counter().count());
+    assertEquals(9.0, meterRegistry.get("app.list.response.bytes")
+        .tags("table", "String", "format", "json").summary().totalAmount());
+    assertEquals(1.0, meterRegistry.get("app.table.writes").tag("table", "String").counter().count());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.entities.UCSBOrganizations;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrganizationsRepository;
+
+@DataJpaTest
+@Import(ProjectionService.class)
+class ProjectionServiceTests {
+
+  @Autowired
+  ProjectionService projectionService;
+
+  @Autowired
+  RestaurantRepository restaurantRepository;
+
+  @Autowired
+  UCSBOrganizationsRepository ucsbOrganizationsRepository;
+
+  Restaurant chipotle;
+  Restaurant freebirds;
+
+  @BeforeEach
+  void setUp() {
+    chipotle = restaurantRepository.save(Restaurant.builder().name("Chipotle").description("Mexican").build());
+    freebirds = restaurantRepository.save(Restaurant.builder().name("Freebirds").description("Burritos").build());
+    ucsbOrganizationsRepository.save(UCSBOrganizations.builder()
+        .orgCode("tasa").orgTranslationShort("TASA").orgTranslation("Taiwanese American Student Association")
+        .inactive(false).build());
+  }
+
+  @Test
+  void rows_have_only_the_requested_fields_in_the_requested_order() {
+    List<Map<String, Object>> rows = projectionService.findAll(Restaurant.class, List.of("name", "id"));
+
+    assertEquals(List.of(
+        Map.of("name", "Chipotle", "id", chipotle.getId()),
+        Map.of("name", "Freebirds", "id", freebirds.getId())), rows);
+    assertEquals(List.of("name", "id"), List.copyOf(rows.get(0).keySet()));
+  }
+
+  @Test
+  void blank_and_repeated_fields_are_ignored() {
+    List<Map<String, Object>> rows = projectionService.findAll(Restaurant.class, List.of(" name", "", "name "));
+
+    assertEquals(List.of(Map.of("name", "Chipotle"), Map.of("name", "Freebirds")), rows);
+  }
+
+  @Test
+  void get_by_id_returns_one_row() {
+    assertEquals(Map.of("description", "Burritos"),
+        projectionService.getById(Restaurant.class, freebirds.getId(), List.of("description")));
+    assertEquals(Map.of("orgTranslationShort", "TASA", "inactive", false),
+        projectionService.getById(UCSBOrganizations.class, "tasa", List.of("orgTranslationShort", "inactive")));
+  }
+
+  @Test
+  void get_by_id_throws_when_the_row_does_not_exist() {
+    EntityNotFoundException e = assertThrows(EntityNotFoundException.class,
+        () -> projectionService.getById(UCSBOrganizations.class, "nope", List.of("orgTranslation")));
+    assertEquals("UCSBOrganizations with id nope not found", e.getMessage());
+  }
+
+  @Test
+  void unknown_fields_are_rejected() {
+    BadRequestException e = assertThrows(BadRequestException.class,
+        () -> projectionService.findAll(Restaurant.class, List.of("name", "price")));
+    assertEquals("Unknown field price for Restaurant; expected some of [description, id, name]", e.getMessage());
+  }
+
+  @Test
+  void at_least_one_field_is_required() {
+    BadRequestException e = assertThrows(BadRequestException.class,
+        () -> projectionService.findAll(Restaurant.class, List.of(" ")));
+    assertEquals("fields must name at least one field", e.getMessage());
+  }
+}
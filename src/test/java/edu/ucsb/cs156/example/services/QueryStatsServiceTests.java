@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import edu.ucsb.cs156.example.models.QueryStats;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+
+class QueryStatsServiceTests {
+
+  QueryStatsService queryStatsService = new QueryStatsService();
+
+  private void run(String sql, long elapsedMillis) {
+    ExecutionInfo execInfo = new ExecutionInfo();
+    execInfo.setElapsedTime(elapsedMillis);
+    List<QueryInfo> queries = List.of(new QueryInfo(sql));
+    queryStatsService.beforeQuery(execInfo, queries);
+    queryStatsService.afterQuery(execInfo, queries);
+  }
+
+  @Test
+  void counts_statements_and_time_between_start_and_finish() {
+    run("select 1", 5);
+
+    queryStatsService.start();
+    run("select * from users where id=?", 2);
+    run("select * from restaurant", 3);
+    run("select * from users where id=?", 4);
+    QueryStats stats = queryStatsService.finish();
+
+    run("select 1", 5);
+
+    assertEquals(new QueryStats(3, 9, "select * from users where id=?", 2), stats);
+    assertEquals(new QueryStats(0, 0, null, 0), queryStatsService.snapshot());
+  }
+
+  @Test
+  void a_request_without_statements_has_nothing_repeated() {
+    queryStatsService.start();
+    assertEquals(new QueryStats(0, 0, null, 0), queryStatsService.finish());
+  }
+
+  @Test
+  void warns_over_the_budget_and_on_repeated_statements() {
+    assertEquals(List.of(), queryStatsService.warnings(new QueryStats(10, 4, "select 1", 4)));
+    assertEquals(List.of("11 SQL statements (4 ms), over the budget of 10"),
+        queryStatsService.warnings(new QueryStats(11, 4, "select 1", 1)));
+    assertEquals(List.of(
+        "11 SQL statements (4 ms), over the budget of 10",
+        "possible N+1: ran 5 times: select * from users where id=?"),
+        queryStatsService.warnings(new QueryStats(11, 4, "select * from users where id=?", 5)));
+  }
+
+  @Test
+  void a_counted_body_adds_to_the_request_from_another_thread() throws Exception {
+    queryStatsService.start();
+    run("select * from restaurant", 1);
+    StreamingResponseBody body = queryStatsService.counted(out -> {
+      run("select * from users where id=?", 2);
+      run("select * from users where id=?", 3);
+    });
+    Supplier<QueryStats> stats = queryStatsService.detach();
+    assertEquals(new QueryStats(1, 1, "select * from restaurant", 1), stats.get());
+
+    // like Spring MVC, write the body on another thread after the filter is done
+    CompletableFuture.runAsync(() -> {
+      try {
+        body.writeTo(new ByteArrayOutputStream());
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+      // and leave that thread as it was
+      assertEquals(new QueryStats(0, 0, null, 0), queryStatsService.snapshot());
+    }).get();
+
+    assertEquals(new QueryStats(3, 6, "select * from users where id=?", 2), stats.get());
+    assertEquals(new QueryStats(0, 0, null, 0), queryStatsService.snapshot());
+  }
+
+  @Test
+  void a_body_outside_a_request_is_not_wrapped() {
+    StreamingResponseBody body = out -> {
+    };
+    assertSame(body, queryStatsService.counted(body));
+  }
+}
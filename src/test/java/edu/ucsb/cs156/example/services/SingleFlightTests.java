@@ -0,0 +1,120 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTests {
+
+  SingleFlight<String, Object> singleFlight = new SingleFlight<>();
+
+  AtomicInteger calls = new AtomicInteger();
+
+  CountDownLatch started = new CountDownLatch(1);
+
+  CountDownLatch release = new CountDownLatch(1);
+
+  /**
+   * Starts a first call that blocks inside its work, then a second call with
+   * the same key, and lets the first one finish once the second is waiting.
+   */
+  private CompletableFuture<Object>[] overlappingCalls(Supplier<Object> result) throws Exception {
+    Supplier<Object> work = () -> {
+      calls.incrementAndGet();
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return result.get();
+    };
+    CompletableFuture<Object> first = new CompletableFuture<>();
+    Thread owner = new Thread(() -> complete(first, () -> singleFlight.run("all", work)));
+    owner.start();
+    started.await();
+
+    CompletableFuture<Object> second = new CompletableFuture<>();
+    Thread waiter = new Thread(() -> complete(second, () -> singleFlight.run("all", work)));
+    waiter.start();
+    while (waiter.getState() != Thread.State.WAITING) {
+      Thread.onSpinWait();
+    }
+
+    release.countDown();
+    owner.join();
+    waiter.join();
+    @SuppressWarnings("unchecked")
+    CompletableFuture<Object>[] both = new CompletableFuture[] { first, second };
+    return both;
+  }
+
+  private static void complete(CompletableFuture<Object> future, Supplier<Object> call) {
+    try {
+      future.complete(call.get());
+    } catch (Throwable t) {
+      future.completeExceptionally(t);
+    }
+  }
+
+  // what the call threw, as thrown: get() would unwrap a CompletionException
+  private static Throwable failure(CompletableFuture<Object> future) throws Exception {
+    Throwable thrown = future.handle((value, t) -> t).get();
+    assertNotNull(thrown);
+    return thrown;
+  }
+
+  @Test
+  void concurrent_calls_share_one_result() throws Exception {
+    Object shared = new Object();
+    CompletableFuture<Object>[] both = overlappingCalls(() -> shared);
+
+    assertEquals(1, calls.get());
+    assertSame(shared, both[0].get());
+    assertSame(shared, both[1].get());
+  }
+
+  @Test
+  void concurrent_calls_share_a_runtime_exception() throws Exception {
+    IllegalStateException boom = new IllegalStateException("boom");
+    CompletableFuture<Object>[] both = overlappingCalls(() -> {
+      throw boom;
+    });
+
+    assertEquals(1, calls.get());
+    assertSame(boom, failure(both[0]));
+    assertSame(boom, failure(both[1]));
+  }
+
+  @Test
+  void waiters_get_errors_wrapped() throws Exception {
+    Error boom = new Error("boom");
+    CompletableFuture<Object>[] both = overlappingCalls(() -> {
+      throw boom;
+    });
+
+    assertEquals(1, calls.get());
+    assertSame(boom, failure(both[0]));
+    Throwable waiterFailure = failure(both[1]);
+    assertEquals(CompletionException.class, waiterFailure.getClass());
+    assertSame(boom, waiterFailure.getCause());
+  }
+
+  @Test
+  void sequential_calls_each_run_the_work() {
+    AtomicReference<String> value = new AtomicReference<>("first");
+
+    assertEquals("first", singleFlight.run("all", value::get));
+    value.set("second");
+    assertEquals("second", singleFlight.run("all", value::get));
+  }
+}
@@ -0,0 +1,124 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.controllers.SlowQueriesController;
+import edu.ucsb.cs156.example.models.SlowQuery;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+class SlowQueryServiceTests {
+
+  SlowQueryService slowQueryService = new SlowQueryService();
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  private static ParameterSetOperation setString(Object index, String value) throws NoSuchMethodException {
+    return new ParameterSetOperation(PreparedStatement.class.getMethod("setString", int.class, String.class),
+        new Object[] { index, value });
+  }
+
+  private static ParameterSetOperation setNull(int index) throws NoSuchMethodException {
+    return new ParameterSetOperation(PreparedStatement.class.getMethod("setNull", int.class, int.class),
+        new Object[] { index, Types.VARCHAR });
+  }
+
+  private void run(long elapsedMillis, QueryInfo... queries) {
+    ExecutionInfo execInfo = new ExecutionInfo();
+    execInfo.setElapsedTime(elapsedMillis);
+    slowQueryService.beforeQuery(execInfo, List.of(queries));
+    slowQueryService.afterQuery(execInfo, List.of(queries));
+  }
+
+  private static QueryInfo query(String sql, List<ParameterSetOperation> parameters) {
+    QueryInfo queryInfo = new QueryInfo(sql);
+    queryInfo.getParametersList().add(parameters);
+    return queryInfo;
+  }
+
+  @Test
+  void keeps_only_statements_over_the_threshold() {
+    run(199, new QueryInfo("select 1"));
+    run(200, new QueryInfo("select 2"));
+
+    List<SlowQuery> recent = slowQueryService.recent();
+    assertEquals(1, recent.size());
+    assertEquals("select 2", recent.get(0).getSql());
+    assertEquals(200, recent.get(0).getElapsedMillis());
+    assertEquals(List.of(), recent.get(0).getParameters());
+  }
+
+  @Test
+  void bind_values_are_in_parameter_order_with_nulls_and_long_values_cut_short() throws Exception {
+    String longValue = "x".repeat(150);
+    run(300, query("update users set full_name=?, locale=?, email=? where id=?", List.of(
+        setString(3, "cgaucho@ucsb.edu"), setNull(2), setString(1, longValue), setString(4, "7"))));
+
+    assertEquals(List.of(List.of("x".repeat(100) + "...", "NULL", "cgaucho@ucsb.edu", "7")),
+        slowQueryService.recent().get(0).getParameters());
+  }
+
+  @Test
+  void named_parameters_keep_their_order() throws Exception {
+    run(300, query("{call f(?, ?)}", List.of(setString("b", "2"), setString("a", "1"))));
+
+    assertEquals(List.of(List.of("2", "1")), slowQueryService.recent().get(0).getParameters());
+  }
+
+  @Test
+  void records_the_endpoint_and_controller_method() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/slowqueries");
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(new SlowQueriesController(), SlowQueriesController.class.getMethod("slowQueries")));
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    run(300, new QueryInfo("select 1"));
+
+    SlowQuery slowQuery = slowQueryService.recent().get(0);
+    assertEquals("GET /api/admin/slowqueries", slowQuery.getEndpoint());
+    assertEquals("SlowQueriesController.slowQueries", slowQuery.getHandler());
+  }
+
+  @Test
+  void endpoint_without_a_handler_and_statements_outside_requests() {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/nowhere")));
+    run(300, new QueryInfo("select 1"));
+    RequestContextHolder.resetRequestAttributes();
+    run(300, new QueryInfo("select 2"));
+
+    List<SlowQuery> recent = slowQueryService.recent();
+    assertEquals("GET /api/nowhere", recent.get(1).getEndpoint());
+    assertNull(recent.get(1).getHandler());
+    assertNull(recent.get(0).getEndpoint());
+    assertNull(recent.get(0).getHandler());
+  }
+
+  @Test
+  void keeps_the_newest_up_to_capacity_and_can_be_cleared() {
+    slowQueryService.capacity = 2;
+    run(300, new QueryInfo("select 1"), new QueryInfo("select 2"));
+    run(300, new QueryInfo("select 3"));
+
+    assertEquals(List.of("select 3", "select 2"), slowQueryService.recent().stream().map(SlowQuery::getSql).toList());
+
+    slowQueryService.clear();
+    assertEquals(List.of(), slowQueryService.recent());
+  }
+}
@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+class UCSBDateServiceQuarterCacheTests {
+
+  UCSBDateRepository ucsbDateRepository = mock(UCSBDateRepository.class);
+  UCSBDateService ucsbDateService = new UCSBDateService();
+
+  UCSBDate firstDay = UCSBDate.builder().id(1).quarterYYYYQ("20222").name("firstDayOfClasses").build();
+  UCSBDate lastDay = UCSBDate.builder().id(2).quarterYYYYQ("20222").name("lastDayOfClasses").build();
+
+  @BeforeEach
+  void setUp() {
+    ucsbDateService.ucsbDateRepository = ucsbDateRepository;
+    ucsbDateService.tableVersionService = mock(TableVersionService.class);
+    ucsbDateService.initQuarterCache();
+  }
+
+  @Test
+  void a_quarter_is_loaded_once() {
+    when(ucsbDateRepository.findAllByQuarterYYYYQ("20222")).thenReturn(List.of(firstDay, lastDay));
+
+    assertEquals(List.of(firstDay, lastDay), ucsbDateService.findByQuarter("20222"));
+    assertEquals(List.of(firstDay, lastDay), ucsbDateService.findByQuarter("20222"));
+    verify(ucsbDateRepository, times(1)).findAllByQuarterYYYYQ("20222");
+  }
+
+  @Test
+  void a_load_that_raced_a_delete_is_not_kept() throws Exception {
+    CountDownLatch reading = new CountDownLatch(1);
+    CountDownLatch deleted = new CountDownLatch(1);
+    when(ucsbDateRepository.findAllByQuarterYYYYQ("20222"))
+        .thenAnswer(invocation -> {
+          // the rows from before the delete, handed back once it has committed
+          reading.countDown();
+          deleted.await();
+          return List.of(firstDay, lastDay);
+        })
+        .thenReturn(List.of(lastDay));
+    when(ucsbDateRepository.removeById(1)).thenReturn(1);
+
+    CompletableFuture<List<UCSBDate>> load = CompletableFuture.supplyAsync(() -> ucsbDateService.findByQuarter("20222"));
+    reading.await();
+    ucsbDateService.delete(1);
+    deleted.countDown();
+
+    assertEquals(List.of(firstDay, lastDay), load.get());
+    assertEquals(List.of(lastDay), ucsbDateService.findByQuarter("20222"));
+    assertEquals(List.of(lastDay), ucsbDateService.findByQuarter("20222"));
+    verify(ucsbDateRepository, times(2)).findAllByQuarterYYYYQ("20222");
+  }
+}
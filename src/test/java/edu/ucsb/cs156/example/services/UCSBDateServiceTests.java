@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+
+@DataJpaTest
+@Import(UCSBDateService.class)
+class UCSBDateServiceTests {
+
+  @MockBean
+  TableVersionService tableVersionService;
+
+  @Autowired
+  UCSBDateService ucsbDateService;
+
+  @Autowired
+  UCSBDateRepository ucsbDateRepository;
+
+  UCSBDate firstDay;
+  UCSBDate lastDay;
+
+  private UCSBDate date(String name, String localDateTime) {
+    return ucsbDateRepository.save(UCSBDate.builder().quarterYYYYQ("20222").name(name)
+        .localDateTime(localDateTime == null ? null : LocalDateTime.parse(localDateTime)).build());
+  }
+
+  private List<UCSBDate> page(UCSBDate after, int size) {
+    if (after == null) {
+      return ucsbDateService.findFirstPage(PageRequest.of(0, size));
+    }
+    String[] cursor = ucsbDateService.cursorOf(after).split(",");
+    return ucsbDateService.findPageAfter(LocalDateTime.parse(cursor[0]), Long.parseLong(cursor[1]),
+        PageRequest.of(0, size));
+  }
+
+  @BeforeEach
+  void setUp() {
+    lastDay = date("lastDayOfClasses", "2022-03-11T00:00:00");
+    firstDay = date("firstDayOfClasses", "2022-01-03T00:00:00");
+  }
+
+  @Test
+  void pages_by_date_with_the_id_breaking_ties() {
+    UCSBDate alsoFirstDay = date("noon", "2022-01-03T00:00:00");
+
+    assertEquals(List.of(firstDay, alsoFirstDay), page(null, 2));
+    assertEquals(List.of(alsoFirstDay, lastDay), page(firstDay, 2));
+    assertEquals(List.of(), page(lastDay, 2));
+  }
+
+  @Test
+  void dates_without_a_localDateTime_sort_first_and_page_across_boundaries() {
+    UCSBDate tbd = date("tbd", null);
+    UCSBDate alsoTbd = date("alsoTbd", null);
+
+    assertEquals(List.of(tbd), page(null, 1));
+    assertEquals("1900-01-01T00:00," + tbd.getId(), ucsbDateService.cursorOf(tbd));
+    assertEquals(List.of(alsoTbd, firstDay), page(tbd, 2));
+    assertEquals(List.of(firstDay, lastDay), page(alsoTbd, 2));
+  }
+}
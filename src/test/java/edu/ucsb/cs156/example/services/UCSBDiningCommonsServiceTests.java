@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+
+class UCSBDiningCommonsServiceTests {
+
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository = mock(UCSBDiningCommonsRepository.class);
+  UCSBDiningCommonsService ucsbDiningCommonsService = new UCSBDiningCommonsService();
+
+  UCSBDiningCommons carrillo = UCSBDiningCommons.builder().code("carrillo").name("Carrillo").build();
+  UCSBDiningCommons ortega = UCSBDiningCommons.builder().code("ortega").name("Ortega").build();
+
+  @Test
+  void a_load_that_raced_an_invalidation_is_not_kept() {
+    ucsbDiningCommonsService.ucsbDiningCommonsRepository = ucsbDiningCommonsRepository;
+    when(ucsbDiningCommonsRepository.findAll())
+        .thenAnswer(invocation -> {
+          // e.g. a write committed while this load was reading the table
+          ucsbDiningCommonsService.invalidate();
+          return List.of(ortega);
+        })
+        .thenReturn(List.of(ortega, carrillo));
+
+    assertEquals(List.of(ortega), List.copyOf(ucsbDiningCommonsService.findAll()));
+    assertEquals(List.of(carrillo, ortega), List.copyOf(ucsbDiningCommonsService.findAll()));
+    assertEquals(List.of(carrillo, ortega), List.copyOf(ucsbDiningCommonsService.findAll()));
+    verify(ucsbDiningCommonsRepository, times(2)).findAll();
+  }
+}
@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.BadRequestException;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+@DataJpaTest
+@Import(UserSearchService.class)
+class UserSearchServiceTests {
+
+  @Autowired
+  UserSearchService userSearchService;
+
+  @Autowired
+  UserRepository userRepository;
+
+  User chris;
+  User lauren;
+  User pat;
+  User dana;
+
+  private User user(String email, String fullName) {
+    return userRepository.save(User.builder().email(email).fullName(fullName).build());
+  }
+
+  @BeforeEach
+  void setUp() {
+    chris = user("cgaucho@ucsb.edu", "Chris Gaucho");
+    lauren = user("ldelplaya@ucsb.edu", "Lauren Del Playa");
+    pat = user("pat_o@ucsb.edu", "Chris Olsen");
+    dana = user("dana@gmail.com", "Dana 100% Gaucho");
+  }
+
+  private List<User> page(String sort, String prefix, String after, int size) {
+    return userSearchService.findPage(sort, prefix, after, PageRequest.of(0, size));
+  }
+
+  @Test
+  void pages_by_id() {
+    assertEquals(List.of(chris, lauren), page("id", null, null, 2));
+    assertEquals(List.of(pat, dana), page("id", null, userSearchService.cursorOf("id", lauren), 2));
+  }
+
+  @Test
+  void pages_by_email() {
+    assertEquals(List.of(chris, dana), page("email", null, null, 2));
+    assertEquals(List.of(lauren, pat), page("email", null, userSearchService.cursorOf("email", dana), 2));
+  }
+
+  @Test
+  void pages_by_full_name_with_the_id_breaking_ties() {
+    User twin = user("chris2@ucsb.edu", "Chris Gaucho");
+
+    assertEquals(List.of(chris, twin), page("fullName", null, null, 2));
+    assertEquals(List.of(twin, pat), page("fullName", null, userSearchService.cursorOf("fullName", chris), 2));
+  }
+
+  @Test
+  void users_without_a_full_name_sort_first_and_page_across_boundaries() {
+    User nameless = user("nameless@ucsb.edu", null);
+    User anonymous = user("anonymous@ucsb.edu", null);
+
+    assertEquals(List.of(nameless), page("fullName", null, null, 1));
+    assertEquals("," + nameless.getId(), userSearchService.cursorOf("fullName", nameless));
+    assertEquals(List.of(anonymous, chris),
+        page("fullName", null, userSearchService.cursorOf("fullName", nameless), 2));
+    assertEquals(List.of(chris, pat),
+        page("fullName", null, userSearchService.cursorOf("fullName", anonymous), 2));
+  }
+
+  @Test
+  void search_matches_a_prefix_of_email_or_full_name_ignoring_case() {
+    assertEquals(List.of(chris, pat), page("id", "CHRIS", null, 10));
+    assertEquals(List.of(lauren), page("id", " ldel ", null, 10));
+    assertEquals(List.of(chris, lauren, pat, dana), page("id", " ", null, 10));
+  }
+
+  @Test
+  void like_wildcards_in_the_search_are_literal() {
+    assertEquals(List.of(pat), page("id", "pat_", null, 10));
+    assertEquals(List.of(), page("id", "c_", null, 10));
+    assertEquals(List.of(), page("id", "p%", null, 10));
+    assertEquals(List.of(), page("id", "c\\", null, 10));
+  }
+
+  @Test
+  void unknown_sort_is_rejected() {
+    BadRequestException e = assertThrows(BadRequestException.class, () -> page("googleSub", null, null, 2));
+    assertEquals("sort must be one of [id, email, fullName]", e.getMessage());
+  }
+
+  @Test
+  void malformed_cursors_are_rejected() {
+    BadRequestException e = assertThrows(BadRequestException.class, () -> page("id", null, "abc", 2));
+    assertEquals("Invalid cursor: abc", e.getMessage());
+    e = assertThrows(BadRequestException.class, () -> page("email", null, "cgaucho@ucsb.edu", 2));
+    assertEquals("Invalid cursor: cgaucho@ucsb.edu", e.getMessage());
+    e = assertThrows(BadRequestException.class, () -> page("fullName", null, "Chris Gaucho,x", 2));
+    assertEquals("Invalid cursor: Chris Gaucho,x", e.getMessage());
+  }
+}
@@ -4,14 +4,17 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
 
-import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.AdminStatusService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @TestConfiguration
 public class TestConfig {
 
     @Bean
-    public CurrentUserService currentUserService() {
+    public MockCurrentUserServiceImpl currentUserService() {
         return new MockCurrentUserServiceImpl();
     }
 
@@ -20,4 +23,19 @@ public class TestConfig {
         return new GrantedAuthoritiesService();
     }
 
+    @Bean
+    public AdminStatusService adminStatusService() {
+        return new AdminStatusService();
+    }
+
+    @Bean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+    @Bean
+    public TableVersionService tableVersionService() {
+        return new TableVersionService();
+    }
+
 }